@@ -0,0 +1,569 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.aws_sns;
+
+import io.mapsmessaging.logging.Logger;
+import io.mapsmessaging.logging.LoggerFactory;
+import io.mapsmessaging.network.protocol.impl.commons.ExtensionConfig;
+import io.mapsmessaging.network.protocol.impl.commons.ExtensionMetrics;
+import io.mapsmessaging.network.protocol.impl.commons.LinkMetrics;
+import io.mapsmessaging.network.protocol.impl.commons.LogSampler;
+import io.mapsmessaging.network.protocol.impl.commons.ShutdownDeadline;
+import io.mapsmessaging.utilities.threads.SimpleTaskScheduler;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.services.sns.SnsAsyncClient;
+import software.amazon.awssdk.services.sns.model.*;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes outbound messages using PublishBatch, up to 10 entries per request, within the rate limit and a bounded
+ * number of requests in flight. FIFO topics are spread over ordered lanes by group id, each lane has one request in
+ * flight with at most one entry per group.
+ */
+public class SnsBatchPublisher implements Closeable {
+
+  public static final int MAX_BATCH_ENTRIES = 10;
+  public static final int MAX_BATCH_BYTES = 256 * 1024;
+  private static final int MAX_ORDERED_SCAN = 100; // Entries looked at for distinct groups when building a FIFO batch
+
+  private final Logger logger;
+  private final SnsAsyncClient snsClient;
+  private final SnsRateLimiter rateLimiter;
+  private final ExtensionMetrics metrics;
+  private final LogSampler sentLogSampler;
+  private final int maxQueued;
+  private final Semaphore queueCapacity;
+  private final Semaphore inFlight;
+  private final int maxInFlight;
+  private final long sendTimeoutMs;
+  private final int batchSize;
+  private final long lingerNanos;
+  private final int maxRetries;
+  private final int maxThrottleRetries;
+  private final long retryBackoffNanos;
+  private final long maxRetryBackoffNanos;
+  private final int fifoLanes;
+  private final Map<String, TopicBatch[]> batches;
+  private final ScheduledFuture<?> lingerTask;
+  private volatile boolean closing;
+
+  public SnsBatchPublisher(SnsAsyncClient snsClient, SnsRateLimiter rateLimiter, ExtensionMetrics metrics, ExtensionConfig config) {
+    this.logger = LoggerFactory.getLogger(SnsBatchPublisher.class);
+    this.snsClient = snsClient;
+    this.rateLimiter = rateLimiter;
+    this.metrics = metrics;
+    this.sentLogSampler = new LogSampler(config);
+    this.maxQueued = Math.max(MAX_BATCH_ENTRIES, config.getInt("maxQueuedMessages", 100_000));
+    this.queueCapacity = new Semaphore(maxQueued);
+    this.maxInFlight = Math.max(1, config.getInt("maxInFlightRequests", 64));
+    this.inFlight = new Semaphore(maxInFlight);
+    this.sendTimeoutMs = Math.max(0, config.getLong("sendTimeoutMs", 30_000));
+    this.batchSize = Math.max(1, Math.min(MAX_BATCH_ENTRIES, config.getInt("batchSize", MAX_BATCH_ENTRIES)));
+    this.maxRetries = Math.max(0, config.getInt("maxRetries", 3));
+    this.maxThrottleRetries = Math.max(0, config.getInt("maxThrottleRetries", 20));
+    this.retryBackoffNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, config.getLong("retryBackoffMs", 100)));
+    this.maxRetryBackoffNanos = Math.max(retryBackoffNanos, TimeUnit.MILLISECONDS.toNanos(config.getLong("maxRetryBackoffMs", 5_000)));
+    this.fifoLanes = Math.max(1, config.getInt("fifoLanes", 16));
+    long lingerMs = Math.max(1, config.getLong("batchLingerMs", 10));
+    this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+    this.batches = new ConcurrentHashMap<>();
+    long tick = Math.max(1, lingerMs / 2);
+    this.lingerTask = SimpleTaskScheduler.getInstance().scheduleAtFixedRate(this::flushExpired, tick, tick, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Queues the entry for the topic, entries for a FIFO topic must carry a message group id.
+   *
+   * @param topicArn Topic to publish to
+   * @param destination Name used for logging against the link
+   * @param entry The entry to send
+   * @param submitted System.nanoTime() the message was handed to the extension, for the send latency
+   */
+  public void publish(String topicArn, String destination, PublishBatchRequestEntry entry, long submitted) {
+    LinkMetrics link = metrics.link(destination);
+    if (!reserveCapacity()) {
+      logger.log(SnsLogMessages.SNS_SEND_ERROR, destination);
+      link.error(closing ? "shutdown" : "interrupted");
+      return;
+    }
+    TopicBatch[] lanes = batches.computeIfAbsent(topicArn, this::createLanes);
+    String groupId = entry.messageGroupId();
+    TopicBatch batch = lanes.length == 1 || groupId == null ? lanes[0] : lanes[(groupId.hashCode() & 0x7fffffff) % lanes.length];
+    batch.add(new PendingEntry(destination, link, entry, sizeOf(entry), submitted));
+    drain(batch, false, closing ? 0 : sendTimeoutMs);
+  }
+
+  /**
+   * Sends everything currently queued regardless of the linger time
+   */
+  public void flush() {
+    for (TopicBatch[] lanes : batches.values()) {
+      for (TopicBatch batch : lanes) {
+        drain(batch, true, sendTimeoutMs);
+      }
+    }
+  }
+
+  public int getInFlightRequests() {
+    return maxInFlight - inFlight.availablePermits();
+  }
+
+  public int getQueuedMessages() {
+    return maxQueued - queueCapacity.availablePermits();
+  }
+
+  @Override
+  public void close() {
+    close(new ShutdownDeadline("sns", sendTimeoutMs));
+  }
+
+  /**
+   * Sends everything queued without waiting for request slots, then waits until the deadline for every entry to
+   * complete. The linger timer and completion callbacks send the rest as slots free up, whatever is still queued
+   * when the deadline passes is counted as undelivered. The caller must have stopped publishing.
+   */
+  public void close(ShutdownDeadline deadline) {
+    beginClose();
+    flushExpired();
+    try {
+      if (queueCapacity.tryAcquire(maxQueued, deadline.remainingMs(), TimeUnit.MILLISECONDS)) {
+        queueCapacity.release(maxQueued);
+      } else {
+        logger.log(SnsLogMessages.SNS_SHUTDOWN_UNDELIVERED, getQueuedMessages());
+      }
+      // Wait for the outstanding requests so the client is not closed underneath them
+      if (inFlight.tryAcquire(maxInFlight, deadline.remainingMs(), TimeUnit.MILLISECONDS)) {
+        inFlight.release(maxInFlight);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      lingerTask.cancel(false);
+    }
+  }
+
+  /**
+   * Stops publish() from waiting on request slots, so the final drain of the outbound pipeline cannot outlast the
+   * shutdown deadline. Everything queued is sent as soon as a slot frees up.
+   */
+  public void beginClose() {
+    closing = true;
+  }
+
+  private void flushExpired() {
+    for (TopicBatch[] lanes : batches.values()) {
+      for (TopicBatch batch : lanes) {
+        drain(batch, false, 0);
+      }
+    }
+  }
+
+  private TopicBatch[] createLanes(String topicArn) {
+    boolean fifo = isFifo(topicArn);
+    TopicBatch[] lanes = new TopicBatch[fifo ? fifoLanes : 1];
+    for (int x = 0; x < lanes.length; x++) {
+      lanes[x] = new TopicBatch(topicArn, fifo);
+    }
+    return lanes;
+  }
+
+  public static boolean isFifo(String topicArn) {
+    return topicArn.endsWith(".fifo");
+  }
+
+  /**
+   * @param waitMs How long to wait for a request slot, 0 leaves the batch queued for the next attempt
+   */
+  private void drain(TopicBatch batch, boolean force, long waitMs) {
+    while (batch.isReady(force, System.nanoTime())) {
+      int count = batch.nextBatchSize();
+      if (!rateLimiter.tryAcquire(batch.topicArn, count)) {
+        return; // Left queued, the linger timer tries again once tokens have accumulated
+      }
+      if (!acquire(waitMs)) {
+        rateLimiter.release(batch.topicArn, count);
+        return;
+      }
+      List<PendingEntry> ready = batch.drain(force, System.nanoTime(), count);
+      if (ready == null) {
+        inFlight.release();
+        rateLimiter.release(batch.topicArn, count);
+        return;
+      }
+      rateLimiter.release(batch.topicArn, count - ready.size());
+      send(batch, ready);
+    }
+  }
+
+  /**
+   * Blocks while the queue is full, this holds the local delivery until the backlog clears
+   */
+  private boolean reserveCapacity() {
+    try {
+      while (!queueCapacity.tryAcquire(sendTimeoutMs, TimeUnit.MILLISECONDS)) {
+        logger.log(SnsLogMessages.SNS_QUEUE_FULL, sendTimeoutMs);
+        if (closing) {
+          return false;
+        }
+      }
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private boolean acquire(long waitMs) {
+    if (inFlight.tryAcquire()) {
+      return true;
+    }
+    if (waitMs <= 0) {
+      return false;
+    }
+    try {
+      if (inFlight.tryAcquire(waitMs, TimeUnit.MILLISECONDS)) {
+        return true;
+      }
+      logger.log(SnsLogMessages.SNS_SEND_BACKPRESSURE, waitMs);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return false;
+  }
+
+  private void send(TopicBatch batch, List<PendingEntry> pending) {
+    List<PublishBatchRequestEntry> entries = new ArrayList<>(pending.size());
+    for (int x = 0; x < pending.size(); x++) {
+      entries.add(pending.get(x).entry.toBuilder().id(Integer.toString(x)).build());
+    }
+    PublishBatchRequest request = PublishBatchRequest.builder()
+        .topicArn(batch.topicArn)
+        .publishBatchRequestEntries(entries)
+        .build();
+    try {
+      snsClient.publishBatch(request).whenComplete((response, error) -> {
+        inFlight.release();
+        if (error != null) {
+          failed(batch, pending, error);
+        } else {
+          completed(batch, pending, response);
+        }
+        batch.sendComplete();
+        drain(batch, false, 0);
+      });
+    } catch (Exception e) {
+      inFlight.release();
+      failed(batch, pending, e);
+      batch.sendComplete();
+    }
+  }
+
+  private void completed(TopicBatch batch, List<PendingEntry> pending, PublishBatchResponse response) {
+    int done = 0;
+    for (PublishBatchResultEntry sent : response.successful()) {
+      PendingEntry entry = pending.get(Integer.parseInt(sent.id()));
+      entry.link.sent(entry.size, entry.submitted);
+      if (sentLogSampler.sample()) {
+        logger.log(SnsLogMessages.SNS_MESSAGE_SENT, entry.destination);
+      }
+      done++;
+    }
+    boolean throttled = false;
+    boolean anyFailed = false;
+    List<PendingEntry> requeue = null;
+    for (BatchResultErrorEntry error : response.failed()) {
+      PendingEntry entry = pending.get(Integer.parseInt(error.id()));
+      entry.link.error(error.code());
+      anyFailed = true;
+      if (isThrottled(error.code())) {
+        throttled = true;
+        if (canRetryThrottled(entry)) {
+          requeue = addTo(requeue, entry);
+        } else {
+          done++;
+        }
+      } else if (Boolean.TRUE.equals(error.senderFault())) {
+        logger.log(SnsLogMessages.SNS_BATCH_ENTRY_REJECTED, entry.destination, error.code(), error.message());
+        done++;
+      } else if (canRetry(entry)) {
+        requeue = addTo(requeue, entry);
+      } else {
+        done++;
+      }
+    }
+    if (throttled) {
+      rateLimiter.onThrottled(batch.topicArn);
+    } else if (done > 0) {
+      rateLimiter.onSuccess(batch.topicArn);
+    }
+    if (requeue != null) {
+      batch.requeue(requeue);
+    }
+    if (anyFailed) {
+      batch.backOff(System.nanoTime());
+    } else {
+      batch.resetBackOff();
+    }
+    queueCapacity.release(done);
+  }
+
+  private void failed(TopicBatch batch, List<PendingEntry> pending, Throwable error) {
+    for (PendingEntry entry : pending) {
+      entry.link.error(error);
+    }
+    batch.backOff(System.nanoTime());
+    boolean throttled = isThrottled(error);
+    if (throttled) {
+      rateLimiter.onThrottled(batch.topicArn);
+    } else {
+      logger.log(SnsLogMessages.SNS_BATCH_SEND_ERROR, batch.topicArn, error);
+    }
+    List<PendingEntry> retry = new ArrayList<>(pending.size());
+    for (PendingEntry entry : pending) {
+      if (throttled ? canRetryThrottled(entry) : canRetry(entry)) {
+        retry.add(entry);
+      }
+    }
+    batch.requeue(retry);
+    queueCapacity.release(pending.size() - retry.size());
+  }
+
+  private boolean canRetry(PendingEntry entry) {
+    entry.attempts++;
+    if (entry.attempts > maxRetries) {
+      logger.log(SnsLogMessages.SNS_SEND_ERROR, entry.destination);
+      entry.link.error("retriesExhausted");
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Throttles are counted apart from other failures, a throttled entry is given up on once it has been throttled
+   * more than maxThrottleRetries times
+   */
+  private boolean canRetryThrottled(PendingEntry entry) {
+    entry.throttles++;
+    if (entry.throttles > maxThrottleRetries) {
+      logger.log(SnsLogMessages.SNS_SEND_ERROR, entry.destination);
+      entry.link.error("throttleRetriesExhausted");
+      return false;
+    }
+    return true;
+  }
+
+  private long backOffDelay(int failures) {
+    long delay = Math.min(maxRetryBackoffNanos, retryBackoffNanos << Math.min(failures - 1, 20));
+    return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+  }
+
+  private static List<PendingEntry> addTo(List<PendingEntry> list, PendingEntry entry) {
+    if (list == null) {
+      list = new ArrayList<>();
+    }
+    list.add(entry);
+    return list;
+  }
+
+  private static boolean isThrottled(String code) {
+    return code != null && code.contains("Throttl");
+  }
+
+  private static boolean isThrottled(Throwable error) {
+    Throwable cause = error;
+    while (cause instanceof CompletionException && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    return cause instanceof SdkServiceException && ((SdkServiceException) cause).isThrottlingException();
+  }
+
+  /**
+   * Computes the encoded size of the entry as SNS counts it against the batch payload limit, the message body plus
+   * the name, type and value of each attribute.
+   */
+  public static int sizeOf(PublishBatchRequestEntry entry) {
+    int size = utf8Length(entry.message());
+    if (entry.hasMessageAttributes()) {
+      for (Map.Entry<String, MessageAttributeValue> attribute : entry.messageAttributes().entrySet()) {
+        MessageAttributeValue value = attribute.getValue();
+        size += utf8Length(attribute.getKey()) + utf8Length(value.dataType());
+        size += value.binaryValue() != null ? value.binaryValue().asByteBuffer().remaining() : utf8Length(value.stringValue());
+      }
+    }
+    return size;
+  }
+
+  private static int utf8Length(String value) {
+    if (value == null) {
+      return 0;
+    }
+    int len = value.length();
+    int size = len;
+    for (int x = 0; x < len; x++) {
+      char ch = value.charAt(x);
+      if (Character.isHighSurrogate(ch)) {
+        size += 2; // 4 bytes for the pair of chars
+        x++;
+      } else if (ch >= 0x800) {
+        size += 2;
+      } else if (ch >= 0x80) {
+        size++;
+      }
+    }
+    return size;
+  }
+
+  private static final class PendingEntry {
+    private final String destination;
+    private final LinkMetrics link;
+    private final PublishBatchRequestEntry entry;
+    private final int size;
+    private final long submitted;
+    private long sequence;
+    private long queuedAt;
+    private int attempts;
+    private int throttles;
+
+    PendingEntry(String destination, LinkMetrics link, PublishBatchRequestEntry entry, int size, long submitted) {
+      this.destination = destination;
+      this.link = link;
+      this.entry = entry;
+      this.size = size;
+      this.submitted = submitted;
+    }
+  }
+
+  private final class TopicBatch {
+    private final String topicArn;
+    private final boolean ordered;
+    private final ArrayDeque<PendingEntry> entries;
+    private int bytes;
+    private long sequence;
+    private boolean sending;
+    private int failures;
+    private long heldUntil;
+
+    TopicBatch(String topicArn, boolean ordered) {
+      this.topicArn = topicArn;
+      this.ordered = ordered;
+      this.entries = new ArrayDeque<>();
+    }
+
+    synchronized boolean isReady(boolean force, long now) {
+      return !entries.isEmpty() &&
+          !(ordered && sending) &&
+          (failures == 0 || now - heldUntil >= 0) &&
+          (force ||
+              closing ||
+              entries.size() >= batchSize ||
+              bytes >= MAX_BATCH_BYTES ||
+              now - entries.peek().queuedAt >= lingerNanos);
+    }
+
+    synchronized void add(PendingEntry entry) {
+      entry.sequence = sequence++;
+      entry.queuedAt = System.nanoTime();
+      entries.add(entry);
+      bytes += entry.size;
+    }
+
+    /**
+     * Puts entries back at the head of the queue in the order they were first queued. Later entries of the same group
+     * were never sent alongside them, so they are all still queued behind.
+     */
+    synchronized void requeue(List<PendingEntry> list) {
+      list.sort(Comparator.comparingLong(entry -> entry.sequence));
+      long now = System.nanoTime();
+      for (int x = list.size() - 1; x >= 0; x--) {
+        PendingEntry entry = list.get(x);
+        entry.queuedAt = now;
+        entries.addFirst(entry);
+        bytes += entry.size;
+      }
+    }
+
+    /**
+     * Holds the batch back after a failure, each consecutive failure doubles the delay up to the configured maximum
+     */
+    synchronized void backOff(long now) {
+      failures++;
+      heldUntil = now + backOffDelay(failures);
+    }
+
+    synchronized void resetBackOff() {
+      failures = 0;
+    }
+
+    synchronized int nextBatchSize() {
+      return Math.min(batchSize, entries.size());
+    }
+
+    /**
+     * Removes the next batch if it is ready or force is set, taking only the oldest entry of each group when ordered
+     *
+     * @return the entries to send or null if the batch is not ready
+     */
+    synchronized List<PendingEntry> drain(boolean force, long now, int max) {
+      if (!isReady(force, now)) {
+        return null;
+      }
+      List<PendingEntry> list = new ArrayList<>(Math.min(max, entries.size()));
+      Set<String> groups = ordered ? new HashSet<>() : null;
+      Iterator<PendingEntry> iterator = entries.iterator();
+      int size = 0;
+      int scanned = 0;
+      while (iterator.hasNext() && list.size() < max && scanned < MAX_ORDERED_SCAN) {
+        PendingEntry next = iterator.next();
+        scanned++;
+        if (!list.isEmpty() && size + next.size > MAX_BATCH_BYTES) {
+          break;
+        }
+        if (groups != null && !groups.add(next.entry.messageGroupId())) {
+          continue;
+        }
+        iterator.remove();
+        list.add(next);
+        size += next.size;
+      }
+      bytes -= size;
+      sending = ordered;
+      return list;
+    }
+
+    synchronized void sendComplete() {
+      sending = false;
+    }
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.aws_sns;
+
+import io.mapsmessaging.network.protocol.impl.commons.ExtensionConfig;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.sns.SnsAsyncClient;
+import software.amazon.awssdk.services.sns.SnsAsyncClientBuilder;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.SqsAsyncClientBuilder;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Builds the AWS clients used by the extension from the endpoint configuration, all clients share the same
+ * pooled, non-blocking HTTP settings.
+ */
+public class SnsClientFactory {
+
+  public static SnsAsyncClient createSnsClient(ExtensionConfig config) {
+    SnsAsyncClientBuilder builder = SnsAsyncClient.builder()
+        .httpClientBuilder(createHttpClientBuilder(config))
+        .overrideConfiguration(createOverrideConfiguration(config));
+    String region = config.getString("region", "");
+    if (!region.isEmpty()) {
+      builder.region(Region.of(region));
+    }
+    String endpoint = config.getString("endpointOverride", "");
+    if (!endpoint.isEmpty()) {
+      builder.endpointOverride(URI.create(endpoint));
+    }
+    return builder.build();
+  }
+
+  public static SqsAsyncClient createSqsClient(ExtensionConfig config) {
+    SqsAsyncClientBuilder builder = SqsAsyncClient.builder()
+        .httpClientBuilder(createHttpClientBuilder(config))
+        .overrideConfiguration(createOverrideConfiguration(config));
+    String region = config.getString("region", "");
+    if (!region.isEmpty()) {
+      builder.region(Region.of(region));
+    }
+    String endpoint = config.getString("sqsEndpointOverride", config.getString("endpointOverride", ""));
+    if (!endpoint.isEmpty()) {
+      builder.endpointOverride(URI.create(endpoint));
+    }
+    return builder.build();
+  }
+
+  static NettyNioAsyncHttpClient.Builder createHttpClientBuilder(ExtensionConfig config) {
+    return NettyNioAsyncHttpClient.builder()
+        .maxConcurrency(config.getInt("maxConnections", 50))
+        .maxPendingConnectionAcquires(config.getInt("maxPendingConnectionAcquires", 10_000))
+        .connectionTimeout(Duration.ofMillis(config.getLong("connectionTimeoutMs", 2_000)))
+        .connectionAcquisitionTimeout(Duration.ofMillis(config.getLong("connectionAcquisitionTimeoutMs", 10_000)))
+        .readTimeout(Duration.ofMillis(config.getLong("readTimeoutMs", 30_000)))
+        .writeTimeout(Duration.ofMillis(config.getLong("writeTimeoutMs", 30_000)))
+        .tcpKeepAlive(true);
+  }
+
+  static ClientOverrideConfiguration createOverrideConfiguration(ExtensionConfig config) {
+    return ClientOverrideConfiguration.builder()
+        .apiCallTimeout(Duration.ofMillis(config.getLong("apiCallTimeoutMs", 60_000)))
+        .build();
+  }
+
+  private SnsClientFactory() {
+  }
+}
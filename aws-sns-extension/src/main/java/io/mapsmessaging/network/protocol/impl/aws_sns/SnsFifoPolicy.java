@@ -0,0 +1,85 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.aws_sns;
+
+import io.mapsmessaging.api.message.Message;
+import io.mapsmessaging.api.message.TypedData;
+import io.mapsmessaging.network.protocol.impl.commons.ExtensionConfig;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Derives the message group and deduplication ids needed to publish to a FIFO topic
+ */
+public class SnsFifoPolicy {
+
+  private static final int MAX_ID_LENGTH = 128;
+
+  private final String groupIdKey;
+  private final String deduplicationIdKey;
+  private final boolean contentBasedDeduplication;
+  private final String deduplicationPrefix;
+  private final AtomicLong deduplicationCounter;
+
+  public SnsFifoPolicy(ExtensionConfig config) {
+    this.groupIdKey = config.getString("messageGroupIdKey", "");
+    this.deduplicationIdKey = config.getString("messageDeduplicationIdKey", "");
+    this.contentBasedDeduplication = config.getBoolean("contentBasedDeduplication", false);
+    this.deduplicationPrefix = Long.toHexString(ThreadLocalRandom.current().nextLong()) + "-";
+    this.deduplicationCounter = new AtomicLong();
+  }
+
+  public String getGroupId(String destination, Message message) {
+    String groupId = lookup(groupIdKey, message);
+    return truncate(groupId != null ? groupId : destination);
+  }
+
+  /**
+   * @return the deduplication id, or null when the topic deduplicates on content
+   */
+  public String getDeduplicationId(Message message) {
+    String deduplicationId = lookup(deduplicationIdKey, message);
+    if (deduplicationId != null) {
+      return truncate(deduplicationId);
+    }
+    if (contentBasedDeduplication) {
+      return null;
+    }
+    return deduplicationPrefix + deduplicationCounter.incrementAndGet();
+  }
+
+  private static String lookup(String key, Message message) {
+    if (key.isEmpty()) {
+      return null;
+    }
+    Map<String, TypedData> dataMap = message.getDataMap();
+    TypedData typedData = dataMap != null ? dataMap.get(key) : null;
+    if (typedData == null || typedData.getData() == null) {
+      return null;
+    }
+    return typedData.getData().toString();
+  }
+
+  private static String truncate(String id) {
+    return id.length() > MAX_ID_LENGTH ? id.substring(0, MAX_ID_LENGTH) : id;
+  }
+}
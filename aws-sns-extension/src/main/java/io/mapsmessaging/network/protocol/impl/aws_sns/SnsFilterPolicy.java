@@ -0,0 +1,503 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+
+package io.mapsmessaging.network.protocol.impl.aws_sns;
+
+import io.mapsmessaging.selector.Identifier;
+import io.mapsmessaging.selector.operators.ComparisonOperator;
+import io.mapsmessaging.selector.operators.ParserExecutor;
+import io.mapsmessaging.selector.operators.ParserOperationExecutor;
+import io.mapsmessaging.selector.operators.comparison.DifferentOperator;
+import io.mapsmessaging.selector.operators.comparison.EqualOperator;
+import io.mapsmessaging.selector.operators.comparison.GreaterOrEqualOperator;
+import io.mapsmessaging.selector.operators.comparison.GreaterThanOperator;
+import io.mapsmessaging.selector.operators.comparison.LessOrEqualOperator;
+import io.mapsmessaging.selector.operators.comparison.LessThanOperator;
+import io.mapsmessaging.selector.operators.functions.BetweenOperator;
+import io.mapsmessaging.selector.operators.functions.InOperator;
+import io.mapsmessaging.selector.operators.functions.IsOperator;
+import io.mapsmessaging.selector.operators.functions.LikeOperator;
+import io.mapsmessaging.selector.operators.logical.AndOperator;
+import io.mapsmessaging.selector.operators.logical.NotOperator;
+import io.mapsmessaging.selector.operators.logical.OrOperator;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Translates a selector compiled by the SelectorParser into an SNS subscription filter policy. Selectors with no
+ * filter policy form, or over the SNS limit of 150 combinations, translate to null and are filtered locally instead.
+ */
+public class SnsFilterPolicy {
+
+  static final int MAX_COMBINATIONS = 150;
+
+  /**
+   * @param selector The selector returned by SelectorParser.compile
+   * @return The filter policy JSON or null if the selector can not be expressed as a filter policy
+   */
+  public static String translate(ParserExecutor selector) {
+    if (!(selector instanceof ParserOperationExecutor)) {
+      return null;
+    }
+    try {
+      Policy policy = toPolicy(field(selector, "parser"));
+      if (policy == null || policy.combinations() > MAX_COMBINATIONS) {
+        return null;
+      }
+      return policy.toJson();
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  //<editor-fold desc="Policy model">
+  /**
+   * A conjunction of per-attribute conditions, each attribute holds a list of alternatives that SNS ORs together,
+   * plus an optional "$or" of nested policies.
+   */
+  private static final class Policy {
+    private final Map<String, List<Condition>> keys = new LinkedHashMap<>();
+    private List<Policy> or;
+
+    static Policy of(String key, List<Condition> conditions) {
+      Policy policy = new Policy();
+      policy.keys.put(key, conditions);
+      return policy;
+    }
+
+    static Policy and(Policy lhs, Policy rhs) {
+      if (lhs == null || rhs == null || (lhs.or != null && rhs.or != null)) {
+        return null;
+      }
+      Policy result = new Policy();
+      result.keys.putAll(lhs.keys);
+      for (Map.Entry<String, List<Condition>> entry : rhs.keys.entrySet()) {
+        List<Condition> existing = result.keys.get(entry.getKey());
+        if (existing == null) {
+          result.keys.put(entry.getKey(), entry.getValue());
+        } else {
+          Condition merged = Condition.mergeRange(existing, entry.getValue());
+          if (merged == null) {
+            return null;
+          }
+          List<Condition> list = new ArrayList<>();
+          list.add(merged);
+          result.keys.put(entry.getKey(), list);
+        }
+      }
+      result.or = lhs.or != null ? lhs.or : rhs.or;
+      return result;
+    }
+
+    static Policy or(Policy lhs, Policy rhs) {
+      if (lhs == null || rhs == null) {
+        return null;
+      }
+      String key = lhs.singleKey();
+      if (key != null && key.equals(rhs.singleKey())) {
+        List<Condition> list = new ArrayList<>(lhs.keys.get(key));
+        list.addAll(rhs.keys.get(key));
+        return of(key, list);
+      }
+      Policy result = new Policy();
+      result.or = new ArrayList<>();
+      result.or.addAll(lhs.isOrOnly() ? lhs.or : List.of(lhs));
+      result.or.addAll(rhs.isOrOnly() ? rhs.or : List.of(rhs));
+      return result;
+    }
+
+    /**
+     * SNS counts the product of the number of values of each key, and sums the products of the $or branches
+     */
+    long combinations() {
+      long total = 1;
+      for (List<Condition> conditions : keys.values()) {
+        total *= conditions.size();
+      }
+      if (or != null) {
+        long branches = 0;
+        for (Policy policy : or) {
+          branches += policy.combinations();
+        }
+        total *= branches;
+      }
+      return total;
+    }
+
+    private String singleKey() {
+      return or == null && keys.size() == 1 ? keys.keySet().iterator().next() : null;
+    }
+
+    private boolean isOrOnly() {
+      return keys.isEmpty() && or != null;
+    }
+
+    String toJson() {
+      StringBuilder sb = new StringBuilder("{");
+      for (Map.Entry<String, List<Condition>> entry : keys.entrySet()) {
+        if (sb.length() > 1) {
+          sb.append(',');
+        }
+        quote(sb, entry.getKey()).append(":[");
+        List<Condition> conditions = entry.getValue();
+        for (int x = 0; x < conditions.size(); x++) {
+          if (x > 0) {
+            sb.append(',');
+          }
+          sb.append(conditions.get(x).toJson());
+        }
+        sb.append(']');
+      }
+      if (or != null) {
+        if (sb.length() > 1) {
+          sb.append(',');
+        }
+        sb.append("\"$or\":[");
+        for (int x = 0; x < or.size(); x++) {
+          if (x > 0) {
+            sb.append(',');
+          }
+          sb.append(or.get(x).toJson());
+        }
+        sb.append(']');
+      }
+      return sb.append('}').toString();
+    }
+  }
+
+  private static final class Condition {
+    private final String json;
+    private final String[] numeric;
+
+    private Condition(String json, String[] numeric) {
+      this.json = json;
+      this.numeric = numeric;
+    }
+
+    static Condition literal(String json) {
+      return new Condition(json, null);
+    }
+
+    static Condition numeric(String... opsAndValues) {
+      return new Condition(null, opsAndValues);
+    }
+
+    static Condition raw(String json) {
+      return new Condition(json, null);
+    }
+
+    /**
+     * Combines a lower and an upper bound on the same attribute, for example "a > 1 AND a < 5", into a single range
+     */
+    static Condition mergeRange(List<Condition> lhs, List<Condition> rhs) {
+      if (lhs.size() != 1 || rhs.size() != 1) {
+        return null;
+      }
+      String[] left = lhs.get(0).numeric;
+      String[] right = rhs.get(0).numeric;
+      if (left == null || right == null || left.length != 2 || right.length != 2) {
+        return null;
+      }
+      if (left[0].startsWith(">") && right[0].startsWith("<")) {
+        return numeric(left[0], left[1], right[0], right[1]);
+      }
+      if (left[0].startsWith("<") && right[0].startsWith(">")) {
+        return numeric(right[0], right[1], left[0], left[1]);
+      }
+      return null;
+    }
+
+    String toJson() {
+      if (json != null) {
+        return json;
+      }
+      StringBuilder sb = new StringBuilder("{\"numeric\":[");
+      for (int x = 0; x < numeric.length; x += 2) {
+        if (x > 0) {
+          sb.append(',');
+        }
+        quote(sb, numeric[x]).append(',').append(numeric[x + 1]);
+      }
+      return sb.append("]}").toString();
+    }
+  }
+  //</editor-fold>
+
+  //<editor-fold desc="Selector tree">
+  private static Policy toPolicy(Object operation) throws ReflectiveOperationException {
+    if (operation instanceof AndOperator) {
+      return Policy.and(toPolicy(field(operation, "lhs")), toPolicy(field(operation, "rhs")));
+    }
+    if (operation instanceof OrOperator) {
+      return Policy.or(toPolicy(field(operation, "lhs")), toPolicy(field(operation, "rhs")));
+    }
+    if (operation instanceof NotOperator) {
+      return not(field(operation, "lhs"));
+    }
+    if (operation instanceof IsOperator) {
+      String key = key(field(operation, "lhs"));
+      boolean notNull = (Boolean) field(operation, "not");
+      return key == null ? null : Policy.of(key, list(Condition.raw("{\"exists\":" + notNull + "}")));
+    }
+    if (operation instanceof InOperator) {
+      String key = key(field(operation, "lhs"));
+      if (key == null) {
+        return null;
+      }
+      List<Condition> conditions = new ArrayList<>();
+      for (Object value : (Collection<?>) field(operation, "set")) {
+        conditions.add(Condition.literal(quote(new StringBuilder(), value.toString()).toString()));
+      }
+      return Policy.of(key, conditions);
+    }
+    if (operation instanceof BetweenOperator) {
+      String[] range = range(operation);
+      return range == null ? null : Policy.of(range[0], list(Condition.numeric(">=", range[1], "<=", range[2])));
+    }
+    if (operation instanceof LikeOperator) {
+      String key = key(field(operation, "lhs"));
+      String match = like(operation);
+      return key == null || match == null ? null : Policy.of(key, list(Condition.raw(match)));
+    }
+    if (operation instanceof ComparisonOperator) {
+      return comparison((ComparisonOperator) operation);
+    }
+    return null;
+  }
+
+  /**
+   * SNS has anything-but for NOT IN and NOT LIKE, and NOT BETWEEN is two open ranges, there is no general NOT
+   */
+  private static Policy not(Object operation) throws ReflectiveOperationException {
+    if (operation instanceof InOperator) {
+      String key = key(field(operation, "lhs"));
+      if (key == null) {
+        return null;
+      }
+      StringBuilder sb = new StringBuilder("{\"anything-but\":[");
+      for (Object value : (Collection<?>) field(operation, "set")) {
+        if (sb.charAt(sb.length() - 1) != '[') {
+          sb.append(',');
+        }
+        quote(sb, value.toString());
+      }
+      return Policy.of(key, list(Condition.raw(sb.append("]}").toString())));
+    }
+    if (operation instanceof BetweenOperator) {
+      String[] range = range(operation);
+      if (range == null) {
+        return null;
+      }
+      List<Condition> conditions = new ArrayList<>();
+      conditions.add(Condition.numeric("<", range[1]));
+      conditions.add(Condition.numeric(">", range[2]));
+      return Policy.of(range[0], conditions);
+    }
+    if (operation instanceof LikeOperator) {
+      String key = key(field(operation, "lhs"));
+      String match = like(operation);
+      if (key == null || match == null) {
+        return null;
+      }
+      match = match.startsWith("{") ? "{\"anything-but\":" + match + "}" : "{\"anything-but\":[" + match + "]}";
+      return Policy.of(key, list(Condition.raw(match)));
+    }
+    return null;
+  }
+
+  private static Policy comparison(ComparisonOperator operation) throws ReflectiveOperationException {
+    Object lhs = field(operation, "lhs");
+    Object rhs = operation.getRHS();
+    boolean reversed = false;
+    String key = key(lhs);
+    Object value = rhs;
+    if (key == null) {
+      key = key(rhs);
+      value = lhs;
+      reversed = true;
+    }
+    if (key == null || value instanceof Identifier) {
+      return null;
+    }
+    String number = number(value);
+    if (operation instanceof EqualOperator) {
+      if (number != null) {
+        return Policy.of(key, list(Condition.numeric("=", number)));
+      }
+      String literal = literal(value);
+      return literal == null ? null : Policy.of(key, list(Condition.literal(literal)));
+    }
+    if (operation instanceof DifferentOperator) {
+      String literal = number != null ? number : literal(value);
+      return literal == null ? null : Policy.of(key, list(Condition.raw("{\"anything-but\":[" + literal + "]}")));
+    }
+    if (number == null) {
+      return null;
+    }
+    String operator;
+    if (operation instanceof GreaterThanOperator) {
+      operator = reversed ? "<" : ">";
+    } else if (operation instanceof GreaterOrEqualOperator) {
+      operator = reversed ? "<=" : ">=";
+    } else if (operation instanceof LessThanOperator) {
+      operator = reversed ? ">" : "<";
+    } else if (operation instanceof LessOrEqualOperator) {
+      operator = reversed ? ">=" : "<=";
+    } else {
+      return null;
+    }
+    return Policy.of(key, list(Condition.numeric(operator, number)));
+  }
+
+  /**
+   * @return the key, lower and upper bound of a numeric BETWEEN, or null
+   */
+  private static String[] range(Object between) throws ReflectiveOperationException {
+    String key = key(field(between, "lhs"));
+    String low = number(((ComparisonOperator) field(between, "bottomOperator")).getRHS());
+    String high = number(((ComparisonOperator) field(between, "topOperator")).getRHS());
+    return key == null || low == null || high == null ? null : new String[]{key, low, high};
+  }
+
+  /**
+   * Only an exact match, a prefix or a suffix, with no '_' or escape character, has a filter policy form
+   */
+  private static String like(Object like) throws ReflectiveOperationException {
+    String pattern = (String) field(like, "searchPattern");
+    if ((Boolean) field(like, "hasEscape") || pattern.indexOf('_') >= 0) {
+      return null;
+    }
+    int wildcard = pattern.indexOf('%');
+    if (wildcard < 0) {
+      return quote(new StringBuilder(), unescape(pattern)).toString();
+    }
+    if (wildcard == pattern.length() - 1) {
+      return "{\"prefix\":" + quote(new StringBuilder(), unescape(pattern.substring(0, wildcard))) + "}";
+    }
+    if (wildcard == 0 && pattern.indexOf('%', 1) < 0) {
+      return "{\"suffix\":" + quote(new StringBuilder(), unescape(pattern.substring(1))) + "}";
+    }
+    return null;
+  }
+
+  private static String key(Object operand) {
+    return operand instanceof Identifier ? ((Identifier) operand).getKey() : null;
+  }
+
+  /**
+   * Written from the parsed value, so only valid JSON numbers reach the policy whatever the selector syntax
+   */
+  private static String number(Object value) {
+    if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+      return value.toString();
+    }
+    if (value instanceof Double || value instanceof Float) {
+      double number = ((Number) value).doubleValue();
+      if (Double.isNaN(number) || Double.isInfinite(number)) {
+        return null;
+      }
+      return BigDecimal.valueOf(number).stripTrailingZeros().toPlainString();
+    }
+    return null;
+  }
+
+  /**
+   * Booleans are published as "String.Boolean" attributes, so match on the string form
+   */
+  private static String literal(Object value) {
+    if (value instanceof String) {
+      return quote(new StringBuilder(), unescape((String) value)).toString();
+    }
+    if (value instanceof Boolean) {
+      return quote(new StringBuilder(), value.toString()).toString();
+    }
+    return null;
+  }
+
+  /**
+   * The parser keeps a quote in a string literal doubled
+   */
+  private static String unescape(String literal) {
+    return literal.replace("''", "'");
+  }
+
+  /**
+   * The parser exposes the operators but not their operands, so these are read from its fields
+   */
+  private static Object field(Object target, String name) throws ReflectiveOperationException {
+    for (Class<?> type = target.getClass(); type != null; type = type.getSuperclass()) {
+      try {
+        Field field = type.getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(target);
+      } catch (NoSuchFieldException e) {
+        // declared on a superclass
+      }
+    }
+    throw new NoSuchFieldException(name);
+  }
+
+  private static List<Condition> list(Condition condition) {
+    List<Condition> list = new ArrayList<>();
+    list.add(condition);
+    return list;
+  }
+
+  private static StringBuilder quote(StringBuilder sb, String value) {
+    sb.append('"');
+    for (int x = 0; x < value.length(); x++) {
+      char ch = value.charAt(x);
+      switch (ch) {
+        case '"':
+          sb.append("\\\"");
+          break;
+        case '\\':
+          sb.append("\\\\");
+          break;
+        case '\n':
+          sb.append("\\n");
+          break;
+        case '\r':
+          sb.append("\\r");
+          break;
+        case '\t':
+          sb.append("\\t");
+          break;
+        default:
+          if (ch < 0x20) {
+            sb.append(String.format("\\u%04x", (int) ch));
+          } else {
+            sb.append(ch);
+          }
+      }
+    }
+    return sb.append('"');
+  }
+  //</editor-fold>
+
+  private SnsFilterPolicy() {
+  }
+}
@@ -36,6 +36,22 @@ public enum SnsLogMessages implements LogMessage {
   SNS_SUBSCRIBE_REMOTE_SUCCESS(LEVEL.INFO, SNS_CATEGORY.PROTOCOL, "Subscribed to SNS queue: {}"),
   SNS_SUBSCRIBE_LOCAL_SUCCESS(LEVEL.INFO, SNS_CATEGORY.PROTOCOL, "Registered local SNS producer for queue: {}"),
   SNS_POLL_ERROR(LEVEL.ERROR, SNS_CATEGORY.PROTOCOL, "Error polling SNS messages from {}"),
+  SNS_BATCH_SEND_ERROR(LEVEL.WARN, SNS_CATEGORY.PROTOCOL, "Failed to publish batch to {}, entries will be retried"),
+  SNS_SEND_BACKPRESSURE(LEVEL.WARN, SNS_CATEGORY.PROTOCOL, "No SNS request slot became free within {}ms, batch left queued"),
+  SNS_QUEUE_FULL(LEVEL.WARN, SNS_CATEGORY.PROTOCOL, "SNS outbound queue has been full for {}ms, waiting for it to drain"),
+  SNS_BATCH_ENTRY_REJECTED(LEVEL.ERROR, SNS_CATEGORY.PROTOCOL, "SNS rejected message for {}, code {} : {}"),
+  SNS_FILTER_POLICY_REJECTED(LEVEL.WARN, SNS_CATEGORY.PROTOCOL, "Filter policy for selector {} was rejected, filtering locally instead"),
+  SNS_SUBSCRIPTION_UPDATED(LEVEL.INFO, SNS_CATEGORY.PROTOCOL, "Updated the attributes of existing subscription {}"),
+  SNS_UNSUBSCRIBED(LEVEL.INFO, SNS_CATEGORY.PROTOCOL, "Removed subscription {}"),
+  SNS_UNSUBSCRIBE_ERROR(LEVEL.WARN, SNS_CATEGORY.PROTOCOL, "Failed to remove subscription {}"),
+  SNS_QUEUE_POLLING(LEVEL.INFO, SNS_CATEGORY.PROTOCOL, "Polling SQS queue {} for {}"),
+  SNS_INBOUND_ERROR(LEVEL.ERROR, SNS_CATEGORY.PROTOCOL, "Failed to process incoming message from {}, it will be redelivered"),
+  SNS_POISON_MESSAGE(LEVEL.ERROR, SNS_CATEGORY.PROTOCOL, "Deleted message {} from {} after {} failed deliveries"),
+  SNS_ACK_ERROR(LEVEL.WARN, SNS_CATEGORY.PROTOCOL, "Failed to delete received messages from {}"),
+  SNS_ACK_FAILED(LEVEL.WARN, SNS_CATEGORY.PROTOCOL, "Failed to delete received message from {}, code {} : {}"),
+  SNS_RELEASE_ERROR(LEVEL.WARN, SNS_CATEGORY.PROTOCOL, "Failed to return received messages to {}, they will be redelivered after the visibility timeout"),
+  SNS_SHUTDOWN_UNDELIVERED(LEVEL.WARN, SNS_CATEGORY.PROTOCOL, "{} SNS messages still queued at the shutdown deadline"),
+  SNS_CLOSED(LEVEL.INFO, SNS_CATEGORY.PROTOCOL, "SNS connection closed"),
   ;
 
   ;
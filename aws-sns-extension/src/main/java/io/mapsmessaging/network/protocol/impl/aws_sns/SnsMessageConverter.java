@@ -0,0 +1,359 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.aws_sns;
+
+import io.mapsmessaging.api.MessageBuilder;
+import io.mapsmessaging.api.message.Message;
+import io.mapsmessaging.api.message.TypedData;
+import io.mapsmessaging.network.protocol.impl.commons.ConversionCache;
+import io.mapsmessaging.network.protocol.impl.commons.ConversionKey;
+import io.mapsmessaging.network.protocol.impl.commons.EncodedPayload;
+import io.mapsmessaging.network.protocol.impl.commons.ExtensionConfig;
+import io.mapsmessaging.network.protocol.impl.commons.PayloadCodec;
+import io.mapsmessaging.network.protocol.impl.commons.PayloadCodecs;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.protocols.jsoncore.JsonNode;
+import software.amazon.awssdk.services.sns.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequestEntry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Converts between MAPS messages and SNS messages. Data map entries become message attributes typed as "Number.Int",
+ * "String.Boolean" and so on, so the original type is restored on receipt. Payloads that are not UTF-8 or were encoded
+ * by a codec are sent base64 encoded.
+ */
+public class SnsMessageConverter {
+
+  public static final String ENCODING_ATTRIBUTE = "maps.encoding";
+  public static final int MAX_MESSAGE_ATTRIBUTES = 10;
+
+  private static final String BASE64 = "base64";
+  private static final String NOTIFICATION = "Notification";
+  private static final int MAX_CACHED_VALUE_LENGTH = 64;
+
+  private static final ThreadLocal<CharsetDecoder> UTF8_DECODER = ThreadLocal.withInitial(() ->
+      StandardCharsets.UTF_8.newDecoder()
+          .onMalformedInput(CodingErrorAction.REPORT)
+          .onUnmappableCharacter(CodingErrorAction.REPORT));
+
+  private final boolean rawMessageDelivery;
+  private final int maxAttributes;
+  private final int maxCachedValues;
+  private final Map<String, Map<String, MessageAttributeValue>> attributeCache;
+  private final MessageAttributeValue base64Marker;
+  private final ConversionCache conversionCache;
+  private final ConversionKey<PublishBatchRequestEntry> entryKey;
+  private final Map<String, ConversionKey<PublishBatchRequestEntry>> codecEntryKeys;
+  private final PayloadCodecs codecs;
+
+  public SnsMessageConverter(ExtensionConfig config) {
+    this.rawMessageDelivery = config.getBoolean("rawMessageDelivery", false);
+    this.maxAttributes = Math.max(0, Math.min(MAX_MESSAGE_ATTRIBUTES, config.getInt("maxMessageAttributes", MAX_MESSAGE_ATTRIBUTES)));
+    this.maxCachedValues = Math.max(0, config.getInt("attributeCacheSize", 1024));
+    this.attributeCache = new ConcurrentHashMap<>();
+    this.base64Marker = MessageAttributeValue.builder().dataType("String").stringValue(BASE64).build();
+    this.conversionCache = ConversionCache.forConfig(config);
+    this.entryKey = new ConversionKey<>("sns.entry:" + maxAttributes);
+    this.codecEntryKeys = new ConcurrentHashMap<>();
+    this.codecs = new PayloadCodecs(config);
+  }
+
+  //<editor-fold desc="Outbound">
+  /**
+   * @param message The MAPS message to convert
+   * @param destination The link, its codec is used for the payload
+   * @param groupId FIFO message group id, or null for a standard topic
+   * @param deduplicationId FIFO deduplication id, or null to leave it to the topic
+   * @return The entry ready to be queued for a PublishBatch request
+   */
+  public PublishBatchRequestEntry toBatchEntry(Message message, String destination, String groupId, String deduplicationId) {
+    ConversionKey<PublishBatchRequestEntry> key = entryKey(codecs.forLink(destination));
+    PublishBatchRequestEntry entry = conversionCache.get(message, key, m -> buildEntry(m, codecs.encode(m, destination)));
+    if (groupId == null && deduplicationId == null) {
+      return entry;
+    }
+    // The FIFO ids depend on the link, the copy shares the body and attributes
+    return entry.toBuilder()
+        .messageGroupId(groupId)
+        .messageDeduplicationId(deduplicationId)
+        .build();
+  }
+
+  /**
+   * The entry embeds the payload encoded by the link's codec, so it is keyed on that codec's id rather than its name
+   */
+  private ConversionKey<PublishBatchRequestEntry> entryKey(PayloadCodec codec) {
+    if (codec == null) {
+      return entryKey;
+    }
+    return codecEntryKeys.computeIfAbsent(codec.getId(), id -> new ConversionKey<>("sns.entry:" + maxAttributes + ":" + id));
+  }
+
+  private PublishBatchRequestEntry buildEntry(Message message, EncodedPayload encoded) {
+    Map<String, MessageAttributeValue> attributes = new LinkedHashMap<>();
+    byte[] payload = encoded.getData();
+    String body = encoded.getCodec() == null ? decodeUtf8(payload) : null;
+    if (body == null) {
+      body = Base64.getEncoder().encodeToString(payload);
+      attributes.put(ENCODING_ATTRIBUTE, base64Marker);
+    }
+    if (encoded.getCodec() != null) {
+      attributes.put(PayloadCodecs.CODEC_PROPERTY, cached("String", encoded.getCodecName()));
+    }
+    Map<String, TypedData> dataMap = message.getDataMap();
+    if (dataMap != null) {
+      for (Map.Entry<String, TypedData> entry : dataMap.entrySet()) {
+        if (attributes.size() >= maxAttributes) {
+          break;
+        }
+        MessageAttributeValue value = toAttributeValue(entry.getValue());
+        if (value != null) {
+          attributes.put(entry.getKey(), value);
+        }
+      }
+    }
+    return PublishBatchRequestEntry.builder()
+        .message(body)
+        .messageAttributes(attributes)
+        .build();
+  }
+
+  MessageAttributeValue toAttributeValue(TypedData typedData) {
+    if (typedData == null || typedData.getData() == null) {
+      return null;
+    }
+    Object data = typedData.getData();
+    switch (typedData.getType()) {
+      case STRING:
+      case CHAR:
+        return cached("String", data.toString());
+
+      case BOOLEAN:
+        return cached("String.Boolean", data.toString());
+
+      case INT:
+        return cached("Number.Int", data.toString());
+
+      case LONG:
+        return cached("Number.Long", data.toString());
+
+      case SHORT:
+        return cached("Number.Short", data.toString());
+
+      case BYTE:
+        return cached("Number.Byte", data.toString());
+
+      case FLOAT:
+      case DOUBLE:
+        double val = ((Number) data).doubleValue();
+        if (Double.isNaN(val) || Double.isInfinite(val)) {
+          return cached("String", data.toString());
+        }
+        return cached(data instanceof Float ? "Number.Float" : "Number.Double", data.toString());
+
+      default:
+        if (data instanceof byte[]) {
+          return MessageAttributeValue.builder()
+              .dataType("Binary")
+              .binaryValue(SdkBytes.fromByteArray((byte[]) data))
+              .build();
+        }
+        return cached("String", data.toString());
+    }
+  }
+
+  /**
+   * Attribute values are immutable, so frequently repeated values, such as enumerations and device identifiers,
+   * are shared rather than rebuilt for every message. The cache is cleared once it reaches its limit so a stream of
+   * unique values can not grow it without bound.
+   */
+  private MessageAttributeValue cached(String dataType, String value) {
+    if (maxCachedValues == 0 || value.length() > MAX_CACHED_VALUE_LENGTH) {
+      return MessageAttributeValue.builder().dataType(dataType).stringValue(value).build();
+    }
+    Map<String, MessageAttributeValue> values = attributeCache.computeIfAbsent(dataType, k -> new ConcurrentHashMap<>());
+    MessageAttributeValue attributeValue = values.get(value);
+    if (attributeValue == null) {
+      if (values.size() >= maxCachedValues) {
+        values.clear();
+      }
+      attributeValue = MessageAttributeValue.builder().dataType(dataType).stringValue(value).build();
+      values.put(value, attributeValue);
+    }
+    return attributeValue;
+  }
+
+  private static String decodeUtf8(byte[] payload) {
+    boolean ascii = true;
+    for (byte b : payload) {
+      if (b < 0) {
+        ascii = false;
+        break;
+      }
+    }
+    if (ascii) {
+      return new String(payload, StandardCharsets.US_ASCII);
+    }
+    try {
+      return UTF8_DECODER.get().decode(ByteBuffer.wrap(payload)).toString();
+    } catch (CharacterCodingException e) {
+      return null;
+    }
+  }
+  //</editor-fold>
+
+  //<editor-fold desc="Inbound">
+  /**
+   * @throws IOException if the payload was sent with a codec that can not decode it here
+   */
+  public Message toMapsMessage(software.amazon.awssdk.services.sqs.model.Message sqsMessage) throws IOException {
+    String body = sqsMessage.body();
+    if (!rawMessageDelivery && body != null && body.startsWith("{")) {
+      Map<String, JsonNode> envelope = parseEnvelope(body);
+      if (envelope != null) {
+        return fromEnvelope(envelope);
+      }
+    }
+    Map<String, TypedData> dataMap = new LinkedHashMap<>();
+    boolean base64 = false;
+    String codec = null;
+    for (Map.Entry<String, software.amazon.awssdk.services.sqs.model.MessageAttributeValue> entry : sqsMessage.messageAttributes().entrySet()) {
+      software.amazon.awssdk.services.sqs.model.MessageAttributeValue value = entry.getValue();
+      if (ENCODING_ATTRIBUTE.equals(entry.getKey())) {
+        base64 = BASE64.equals(value.stringValue());
+      } else if (PayloadCodecs.CODEC_PROPERTY.equals(entry.getKey())) {
+        codec = value.stringValue();
+      } else if (value.dataType().startsWith("Binary")) {
+        dataMap.put(entry.getKey(), new TypedData(value.binaryValue().asByteArray()));
+      } else {
+        dataMap.put(entry.getKey(), toTypedData(value.dataType(), value.stringValue()));
+      }
+    }
+    return new MessageBuilder()
+        .setOpaqueData(decode(toPayload(body, base64), codec))
+        .setDataMap(dataMap)
+        .build();
+  }
+
+  private Message fromEnvelope(Map<String, JsonNode> envelope) throws IOException {
+    Map<String, TypedData> dataMap = new LinkedHashMap<>();
+    boolean base64 = false;
+    String codec = null;
+    JsonNode attributes = envelope.get("MessageAttributes");
+    if (attributes != null && attributes.isObject()) {
+      for (Map.Entry<String, JsonNode> entry : attributes.asObject().entrySet()) {
+        Map<String, JsonNode> attribute = entry.getValue().asObject();
+        String type = textOf(attribute.get("Type"));
+        String value = textOf(attribute.get("Value"));
+        if (type == null || value == null) {
+          continue;
+        }
+        if (ENCODING_ATTRIBUTE.equals(entry.getKey())) {
+          base64 = BASE64.equals(value);
+        } else if (PayloadCodecs.CODEC_PROPERTY.equals(entry.getKey())) {
+          codec = value;
+        } else if (type.startsWith("Binary")) {
+          dataMap.put(entry.getKey(), new TypedData(Base64.getDecoder().decode(value)));
+        } else {
+          dataMap.put(entry.getKey(), toTypedData(type, value));
+        }
+      }
+    }
+    return new MessageBuilder()
+        .setOpaqueData(decode(toPayload(textOf(envelope.get("Message")), base64), codec))
+        .setDataMap(dataMap)
+        .build();
+  }
+
+  private byte[] decode(byte[] payload, String codec) throws IOException {
+    return codec != null ? codecs.decode(codec, payload) : payload;
+  }
+
+  private static byte[] toPayload(String body, boolean base64) {
+    if (body == null) {
+      return new byte[0];
+    }
+    return base64 ? Base64.getDecoder().decode(body) : body.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static Map<String, JsonNode> parseEnvelope(String body) {
+    try {
+      JsonNode node = JsonNode.parser().parse(body);
+      if (node.isObject()) {
+        Map<String, JsonNode> envelope = node.asObject();
+        if (NOTIFICATION.equals(textOf(envelope.get("Type"))) && envelope.containsKey("Message")) {
+          return envelope;
+        }
+      }
+    } catch (RuntimeException e) {
+      // Not JSON, so this is a raw payload
+    }
+    return null;
+  }
+
+  private static String textOf(JsonNode node) {
+    if (node == null || node.isNull()) {
+      return null;
+    }
+    return node.isString() ? node.asString() : node.text();
+  }
+
+  static TypedData toTypedData(String type, String value) {
+    try {
+      switch (type) {
+        case "String.Boolean":
+          return new TypedData(Boolean.parseBoolean(value));
+        case "Number.Int":
+          return new TypedData(Integer.parseInt(value));
+        case "Number.Long":
+          return new TypedData(Long.parseLong(value));
+        case "Number.Short":
+          return new TypedData(Short.parseShort(value));
+        case "Number.Byte":
+          return new TypedData(Byte.parseByte(value));
+        case "Number.Float":
+          return new TypedData(Float.parseFloat(value));
+        case "Number.Double":
+          return new TypedData(Double.parseDouble(value));
+        default:
+          if (type.startsWith("Number")) {
+            if (value.indexOf('.') < 0 && value.indexOf('e') < 0 && value.indexOf('E') < 0) {
+              return new TypedData(Long.parseLong(value));
+            }
+            return new TypedData(Double.parseDouble(value));
+          }
+      }
+    } catch (NumberFormatException ignored) {
+      // Fall back to the string value
+    }
+    return new TypedData(value);
+  }
+  //</editor-fold>
+}
@@ -24,46 +24,114 @@ import io.mapsmessaging.api.message.Message;
 import io.mapsmessaging.dto.rest.config.protocol.impl.ExtensionConfigDTO;
 import io.mapsmessaging.logging.Logger;
 import io.mapsmessaging.logging.LoggerFactory;
+import io.mapsmessaging.network.EndPointURL;
 import io.mapsmessaging.network.io.EndPoint;
+import io.mapsmessaging.network.protocol.impl.commons.ExtensionConfig;
+import io.mapsmessaging.network.protocol.impl.commons.ExtensionMetrics;
+import io.mapsmessaging.network.protocol.impl.commons.OutboundMessage;
+import io.mapsmessaging.network.protocol.impl.commons.OutboundPipeline;
+import io.mapsmessaging.network.protocol.impl.commons.ShutdownDeadline;
 import io.mapsmessaging.network.protocol.impl.extension.Extension;
-import software.amazon.awssdk.services.sns.SnsClient;
+import io.mapsmessaging.selector.ParseException;
+import io.mapsmessaging.selector.SelectorParser;
+import io.mapsmessaging.selector.operators.ParserExecutor;
+import software.amazon.awssdk.services.sns.SnsAsyncClient;
 import software.amazon.awssdk.services.sns.model.*;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.model.GetQueueAttributesRequest;
+import software.amazon.awssdk.services.sqs.model.GetQueueUrlRequest;
+import software.amazon.awssdk.services.sqs.model.QueueAttributeName;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class SnsProtocol extends Extension {
 
   private final Logger logger;
   private final ExtensionConfigDTO protocolConfig;
-  private final SnsClient snsClient;
-  private final String topicArn;
+  private final ExtensionConfig config;
+  private final String name;
+  private final SnsAsyncClient snsClient;
+  private final SqsAsyncClient sqsClient;
+  private final SnsBatchPublisher publisher;
+  private final SnsMessageConverter converter;
+  private final SnsTopicResolver topicResolver;
+  private final SnsFifoPolicy fifoPolicy;
   private final Map<String, String> subscriptions;
+  private final Map<String, SqsQueuePoller> pollers;
+  private final OutboundPipeline<OutboundMessage> pipeline;
+  private final ExtensionMetrics metrics;
+  private final long shutdownTimeoutMs;
+  private final boolean rawMessageDelivery;
+  private final boolean unsubscribeOnClose;
 
   public SnsProtocol(EndPoint endPoint, ExtensionConfigDTO protocolConfigDTO) {
     this.protocolConfig = protocolConfigDTO;
     this.logger = LoggerFactory.getLogger(SnsProtocol.class);
-    this.snsClient = SnsClient.create();
-    this.topicArn = (String) protocolConfigDTO.getConfig().getOrDefault("topicArn", "");
-    this.subscriptions = new HashMap<>();
+    this.config = new ExtensionConfig(protocolConfigDTO.getConfig());
+    EndPointURL url = new EndPointURL(endPoint.getConfig().getUrl());
+    this.name = "sns:" + url.getHost() + ":" + url.getPort() + "/" + config.getString("region", "");
+    this.snsClient = SnsClientFactory.createSnsClient(config);
+    this.sqsClient = SnsClientFactory.createSqsClient(config);
+    this.metrics = new ExtensionMetrics(name, config);
+    this.publisher = new SnsBatchPublisher(snsClient, new SnsRateLimiter(config), metrics, config);
+    this.converter = new SnsMessageConverter(config);
+    this.topicResolver = new SnsTopicResolver(snsClient, config);
+    this.fifoPolicy = new SnsFifoPolicy(config);
+    this.subscriptions = new ConcurrentHashMap<>();
+    this.pollers = new ConcurrentHashMap<>();
+    this.pipeline = new OutboundPipeline<>(name, config, this::sendBatch);
+    this.shutdownTimeoutMs = config.getLong("shutdownTimeoutMs", 30_000);
+    this.rawMessageDelivery = config.getBoolean("rawMessageDelivery", false);
+    this.unsubscribeOnClose = config.getBoolean("unsubscribeOnClose", false);
+    metrics.registerGauge("outboundQueueSize", pipeline::getQueueSize);
+    metrics.registerGauge("outboundDropped", pipeline::getDropped);
+    metrics.registerGauge("publisherQueued", publisher::getQueuedMessages);
+    metrics.registerGauge("inFlightRequests", publisher::getInFlightRequests);
   }
 
+  /**
+   * Stops the pollers, drains the pipeline and the publisher and waits for the deliveries already received to be
+   * deleted from their queues, removes the subscriptions, then closes both clients at once. Every step shares the
+   * shutdownTimeoutMs deadline.
+   */
   @Override
   public void close() throws IOException {
+    ShutdownDeadline deadline = new ShutdownDeadline(name, shutdownTimeoutMs);
     try {
-      snsClient.close();
-      logger.log(SnsLogMessages.SNS_INITIALIZED);
+      List<CompletableFuture<Void>> stopped = new ArrayList<>();
+      for (SqsQueuePoller poller : pollers.values()) {
+        stopped.add(poller.stop());
+      }
+      publisher.beginClose();
+      pipeline.close(deadline);
+      publisher.close(deadline);
+      deadline.awaitAll("SQS acknowledgements", stopped);
+      if (unsubscribeOnClose) {
+        List<CompletableFuture<Void>> unsubscribed = new ArrayList<>();
+        for (String subscriptionArn : subscriptions.values()) {
+          unsubscribed.add(unsubscribe(subscriptionArn));
+        }
+        deadline.awaitAll("unsubscribe", unsubscribed);
+      }
+      deadline.closeAll("client close", List.of(snsClient::close, sqsClient::close));
+      logger.log(SnsLogMessages.SNS_CLOSED);
     } catch (Exception e) {
       logger.log(SnsLogMessages.SNS_CLOSE_ERROR, e);
     }
+    metrics.close();
     super.close();
   }
 
   @Override
   public void initialise() throws IOException {
     try {
-      logger.log(SnsLogMessages.SNS_INITIALIZED, topicArn);
+      logger.log(SnsLogMessages.SNS_INITIALIZED, config.getString("topicArn", ""));
     } catch (Exception e) {
       logger.log(SnsLogMessages.SNS_INITIALIZE_ERROR, e);
       throw new IOException("Error initializing SNS", e);
@@ -82,36 +150,91 @@ public class SnsProtocol extends Extension {
 
   @Override
   public boolean supportsRemoteFiltering() {
-    return false; // SNS does not support direct filtering like EventBridge
+    return true; // Selectors are pushed down as subscription filter policies, or evaluated as messages are received
   }
 
   @Override
   public void outbound(String destination, Message message) {
-    try {
-      PublishRequest request = PublishRequest.builder()
-          .topicArn(topicArn)
-          .message(new String(message.getOpaqueData()))
-          .build();
+    if (!pipeline.submit(new OutboundMessage(destination, message))) {
+      logger.log(SnsLogMessages.SNS_SEND_ERROR, destination);
+    }
+  }
 
-      snsClient.publish(request);
-      logger.log(SnsLogMessages.SNS_MESSAGE_SENT, destination);
+  /**
+   * Called from the outbound pipeline's worker, so topic resolution and any wait for the publisher's request slots
+   * happen off the MAPS delivery thread.
+   */
+  private void sendBatch(List<OutboundMessage> batch) {
+    for (OutboundMessage outboundMessage : batch) {
+      send(outboundMessage.getDestination(), outboundMessage.getMessage(), outboundMessage.getSubmitted());
+    }
+  }
+
+  private void send(String destination, Message message, long submitted) {
+    try {
+      String topicArn = topicResolver.resolve(destination);
+      PublishBatchRequestEntry entry;
+      if (SnsBatchPublisher.isFifo(topicArn)) {
+        entry = converter.toBatchEntry(message, destination, fifoPolicy.getGroupId(destination, message), fifoPolicy.getDeduplicationId(message));
+      } else {
+        entry = converter.toBatchEntry(message, destination, null, null);
+      }
+      publisher.publish(topicArn, destination, entry, submitted);
     } catch (Exception e) {
       logger.log(SnsLogMessages.SNS_SEND_ERROR, destination, e);
+      metrics.link(destination).error(e);
     }
   }
 
+  /**
+   * Subscribes an SQS queue to the topic and starts draining it into the local destination.
+   *
+   * @param destination The SQS queue to receive from, as a queue ARN, queue URL or queue name
+   * @param filter Optional JMS selector, translated to a filter policy where possible
+   * @throws IOException if the selector is invalid or the queue could not be resolved or subscribed
+   */
   @Override
   public void registerRemoteLink(String destination, String filter) throws IOException {
+    ParserExecutor selector = null;
+    if (filter != null && !filter.trim().isEmpty()) {
+      try {
+        selector = SelectorParser.compile(filter);
+      } catch (ParseException e) {
+        throw new IOException("Invalid selector " + filter, e);
+      }
+    }
     try {
-      SubscribeRequest subscribeRequest = SubscribeRequest.builder()
-          .topicArn(topicArn)
-          .protocol("sqs") // Could be "http", "https", "email", "lambda", etc.
-          .endpoint(destination) // This should be an SQS queue ARN or HTTP URL
-          .build();
-
-      SubscribeResponse response = snsClient.subscribe(subscribeRequest);
-      subscriptions.put(destination, response.subscriptionArn());
+      String queueUrl = resolveQueueUrl(destination);
+      String queueArn = destination.startsWith("arn:") ? destination : resolveQueueArn(queueUrl);
+      String topicArn = topicResolver.resolveSubscriptionTopic(destination);
+      String filterPolicy = SnsFilterPolicy.translate(selector);
+      String subscriptionArn;
+      try {
+        subscriptionArn = subscribe(topicArn, queueArn, filterPolicy);
+      } catch (Exception e) {
+        if (filterPolicy == null) {
+          throw e;
+        }
+        // AWS limits the size and complexity of filter policies, fall back to filtering locally
+        logger.log(SnsLogMessages.SNS_FILTER_POLICY_REJECTED, filter, e);
+        filterPolicy = null;
+        subscriptionArn = subscribe(topicArn, queueArn, null);
+      }
+      String previousArn = subscriptions.put(destination, subscriptionArn);
+      if (previousArn != null && !previousArn.equals(subscriptionArn)) {
+        unsubscribe(previousArn);
+      }
       logger.log(SnsLogMessages.SNS_SUBSCRIBE_REMOTE_SUCCESS, destination);
+
+      ParserExecutor localFilter = filterPolicy == null ? selector : null;
+      SqsQueuePoller poller = new SqsQueuePoller(sqsClient, destination, queueUrl, config, converter, this::inbound, localFilter,
+          metrics.link(destination));
+      SqsQueuePoller previous = pollers.put(destination, poller);
+      if (previous != null) {
+        previous.close();
+      }
+      poller.start();
+      logger.log(SnsLogMessages.SNS_QUEUE_POLLING, queueUrl, destination);
     } catch (Exception e) {
       throw new IOException("Error subscribing to SNS topic", e);
     }
@@ -119,8 +242,104 @@ public class SnsProtocol extends Extension {
 
   @Override
   public void registerLocalLink(String destination) throws IOException {
-    // In SNS, there is no concept of local vs remote subscriptions
-    registerRemoteLink(destination, null);
+    // Publishing needs no remote setup, the topic is addressed directly on each publish
     logger.log(SnsLogMessages.SNS_SUBSCRIBE_LOCAL_SUCCESS, destination);
   }
+
+  /**
+   * Subscribes the queue, or updates the attributes of its existing subscription to the topic
+   *
+   * @return the subscription ARN
+   */
+  private String subscribe(String topicArn, String queueArn, String filterPolicy) {
+    String existing = findSubscription(topicArn, queueArn);
+    if (existing != null) {
+      if (filterPolicy != null) {
+        setSubscriptionAttribute(existing, "FilterPolicyScope", "MessageAttributes");
+      }
+      // An empty policy removes the filter
+      setSubscriptionAttribute(existing, "FilterPolicy", filterPolicy != null ? filterPolicy : "{}");
+      setSubscriptionAttribute(existing, "RawMessageDelivery", Boolean.toString(rawMessageDelivery));
+      logger.log(SnsLogMessages.SNS_SUBSCRIPTION_UPDATED, existing);
+      return existing;
+    }
+    SubscribeRequest.Builder subscribeRequest = SubscribeRequest.builder()
+        .topicArn(topicArn)
+        .protocol("sqs")
+        .endpoint(queueArn);
+    Map<String, String> attributes = new LinkedHashMap<>();
+    if (filterPolicy != null) {
+      attributes.put("FilterPolicy", filterPolicy);
+      attributes.put("FilterPolicyScope", "MessageAttributes");
+    }
+    if (rawMessageDelivery) {
+      // The converter then reads the payload and attributes straight from the SQS message rather than an envelope
+      attributes.put("RawMessageDelivery", "true");
+    }
+    if (!attributes.isEmpty()) {
+      subscribeRequest.attributes(attributes);
+    }
+    return snsClient.subscribe(subscribeRequest.build()).join().subscriptionArn();
+  }
+
+  private String findSubscription(String topicArn, String queueArn) {
+    String nextToken = null;
+    do {
+      ListSubscriptionsByTopicResponse response = snsClient.listSubscriptionsByTopic(ListSubscriptionsByTopicRequest.builder()
+          .topicArn(topicArn)
+          .nextToken(nextToken)
+          .build()).join();
+      for (Subscription subscription : response.subscriptions()) {
+        if ("sqs".equals(subscription.protocol()) && queueArn.equals(subscription.endpoint()) &&
+            subscription.subscriptionArn().startsWith("arn:")) {
+          return subscription.subscriptionArn();
+        }
+      }
+      nextToken = response.nextToken();
+    } while (nextToken != null);
+    return null;
+  }
+
+  private void setSubscriptionAttribute(String subscriptionArn, String name, String value) {
+    snsClient.setSubscriptionAttributes(SetSubscriptionAttributesRequest.builder()
+        .subscriptionArn(subscriptionArn)
+        .attributeName(name)
+        .attributeValue(value)
+        .build()).join();
+  }
+
+  private CompletableFuture<Void> unsubscribe(String subscriptionArn) {
+    return snsClient.unsubscribe(UnsubscribeRequest.builder().subscriptionArn(subscriptionArn).build())
+        .handle((response, error) -> {
+          if (error != null) {
+            logger.log(SnsLogMessages.SNS_UNSUBSCRIBE_ERROR, subscriptionArn, error);
+          } else {
+            logger.log(SnsLogMessages.SNS_UNSUBSCRIBED, subscriptionArn);
+          }
+          return null;
+        });
+  }
+
+  private String resolveQueueUrl(String destination) {
+    if (destination.startsWith("https://") || destination.startsWith("http://")) {
+      return destination;
+    }
+    GetQueueUrlRequest.Builder request = GetQueueUrlRequest.builder();
+    if (destination.startsWith("arn:")) {
+      // arn:aws:sqs:<region>:<account>:<queue name>
+      String[] parts = destination.split(":");
+      request.queueName(parts[parts.length - 1]).queueOwnerAWSAccountId(parts[4]);
+    } else {
+      request.queueName(destination);
+    }
+    return sqsClient.getQueueUrl(request.build()).join().queueUrl();
+  }
+
+  private String resolveQueueArn(String queueUrl) {
+    GetQueueAttributesRequest request = GetQueueAttributesRequest.builder()
+        .queueUrl(queueUrl)
+        .attributeNames(QueueAttributeName.QUEUE_ARN)
+        .build();
+    return sqsClient.getQueueAttributes(request).join().attributes().get(QueueAttributeName.QUEUE_ARN);
+  }
 }
@@ -0,0 +1,233 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.aws_sns;
+
+import io.mapsmessaging.network.protocol.impl.commons.ExtensionConfig;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token buckets limiting the publish rate for the account and for each topic. The rate is cut when SNS throttles and
+ * climbs back while requests succeed. An account rate of 0 disables the account bucket, a topic rate of 0 leaves the
+ * topic unlimited until it is first throttled, after which it adapts from the rate it was publishing at.
+ */
+public class SnsRateLimiter {
+
+  private final TokenBucket accountBucket;
+  private final Map<String, TokenBucket> topicBuckets;
+  private final double topicRate;
+  private final double minimumFraction;
+  private final double decreaseFactor;
+  private final double increasePerSecond;
+  private final long burstNanos;
+
+  public SnsRateLimiter(ExtensionConfig config) {
+    this.minimumFraction = clamp(config.getLong("rateLimitMinimumPercent", 5) / 100.0);
+    this.decreaseFactor = clamp(config.getLong("rateLimitDecreasePercent", 50) / 100.0);
+    this.increasePerSecond = clamp(config.getLong("rateLimitIncreasePercent", 5) / 100.0);
+    this.burstNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, config.getLong("rateLimitBurstMs", 100)));
+    double accountRate = Math.max(0, config.getLong("publishRateLimit", 0));
+    this.accountBucket = accountRate > 0 ? new TokenBucket(accountRate) : null;
+    this.topicRate = Math.max(0, config.getLong("topicPublishRateLimit", 0));
+    this.topicBuckets = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Takes the tokens for the messages from both the account and the topic bucket, or neither
+   *
+   * @return true if the messages may be sent now
+   */
+  public boolean tryAcquire(String topicArn, int messages) {
+    long now = System.nanoTime();
+    if (accountBucket != null && !accountBucket.tryAcquire(messages, now)) {
+      return false;
+    }
+    if (!getTopicBucket(topicArn).tryAcquire(messages, now)) {
+      if (accountBucket != null) {
+        accountBucket.release(messages);
+      }
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns tokens that were acquired but not used
+   */
+  public void release(String topicArn, int messages) {
+    if (messages <= 0) {
+      return;
+    }
+    if (accountBucket != null) {
+      accountBucket.release(messages);
+    }
+    getTopicBucket(topicArn).release(messages);
+  }
+
+  public void onThrottled(String topicArn) {
+    long now = System.nanoTime();
+    if (accountBucket != null) {
+      accountBucket.decrease(now);
+    }
+    getTopicBucket(topicArn).decrease(now);
+  }
+
+  public void onSuccess(String topicArn) {
+    long now = System.nanoTime();
+    if (accountBucket != null) {
+      accountBucket.increase(now);
+    }
+    getTopicBucket(topicArn).increase(now);
+  }
+
+  public double getAccountRate() {
+    return accountBucket != null ? accountBucket.getRate() : 0;
+  }
+
+  public double getTopicRate(String topicArn) {
+    return getTopicBucket(topicArn).getRate();
+  }
+
+  private TokenBucket getTopicBucket(String topicArn) {
+    TokenBucket bucket = topicBuckets.get(topicArn);
+    if (bucket == null) {
+      bucket = topicBuckets.computeIfAbsent(topicArn, k -> new TokenBucket(topicRate));
+    }
+    return bucket;
+  }
+
+  private static double clamp(double val) {
+    return Math.max(0.0, Math.min(1.0, val));
+  }
+
+  /**
+   * A bucket created with a rate of 0 has no ceiling, its rate is infinite until the first throttle cuts it from the
+   * rate observed over the last second.
+   */
+  private final class TokenBucket {
+    private final double maxRate;
+    private final double minRate;
+    private double increaseStep;
+    private double rate;
+    private double tokens;
+    private long lastRefill;
+    private long lastAdjust;
+    private long lastDecrease;
+    private long windowStart;
+    private long windowCount;
+    private double observedRate;
+
+    TokenBucket(double maxRate) {
+      this.maxRate = maxRate > 0 ? maxRate : Double.POSITIVE_INFINITY;
+      this.minRate = maxRate > 0 ? Math.max(1.0, maxRate * minimumFraction) : 1.0;
+      this.increaseStep = maxRate * increasePerSecond;
+      this.rate = this.maxRate;
+      this.lastRefill = System.nanoTime();
+      this.lastAdjust = lastRefill;
+      this.lastDecrease = lastRefill - burstNanos;
+      this.windowStart = lastRefill;
+      this.tokens = capacity();
+    }
+
+    synchronized double getRate() {
+      return rate;
+    }
+
+    synchronized boolean tryAcquire(int count, long now) {
+      refill(now);
+      if (tokens >= count) {
+        tokens -= count;
+        observe(count, now);
+        return true;
+      }
+      return false;
+    }
+
+    synchronized void release(int count) {
+      tokens = Math.min(capacity(), tokens + count);
+      windowCount = Math.max(0, windowCount - count);
+    }
+
+    /**
+     * Multiplicative decrease, ignored for a short while after the last cut since the requests already in flight
+     * when the first throttle arrived are likely to be throttled as well.
+     */
+    synchronized void decrease(long now) {
+      if (now - lastDecrease < burstNanos) {
+        return;
+      }
+      refill(now);
+      double from = rate;
+      if (maxRate == Double.POSITIVE_INFINITY) {
+        from = Math.min(rate, observed(now));
+        increaseStep = Math.max(1.0, from * increasePerSecond);
+      }
+      rate = Math.max(minRate, from * (1.0 - decreaseFactor));
+      tokens = Math.min(tokens, capacity());
+      lastAdjust = now;
+      lastDecrease = now;
+    }
+
+    /**
+     * Additive increase, proportional to the time since the last adjustment
+     */
+    synchronized void increase(long now) {
+      if (rate >= maxRate) {
+        lastAdjust = now;
+        return;
+      }
+      double elapsed = (now - lastAdjust) / (double) TimeUnit.SECONDS.toNanos(1);
+      rate = Math.min(maxRate, rate + increaseStep * elapsed);
+      lastAdjust = now;
+    }
+
+    /**
+     * Counts the messages let through, the rate over each full second is kept as the observed rate
+     */
+    private void observe(int count, long now) {
+      windowCount += count;
+      long elapsed = now - windowStart;
+      if (elapsed >= TimeUnit.SECONDS.toNanos(1)) {
+        observedRate = windowCount * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+        windowStart = now;
+        windowCount = 0;
+      }
+    }
+
+    private double observed(long now) {
+      long elapsed = Math.max(burstNanos, now - windowStart);
+      return Math.max(observedRate, windowCount * (double) TimeUnit.SECONDS.toNanos(1) / elapsed);
+    }
+
+    private void refill(long now) {
+      long elapsed = now - lastRefill;
+      if (elapsed > 0) {
+        tokens = Math.min(capacity(), tokens + rate * elapsed / TimeUnit.SECONDS.toNanos(1));
+        lastRefill = now;
+      }
+    }
+
+    private double capacity() {
+      return Math.max(SnsBatchPublisher.MAX_BATCH_ENTRIES, rate * burstNanos / TimeUnit.SECONDS.toNanos(1));
+    }
+  }
+}
@@ -0,0 +1,265 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.aws_sns;
+
+import io.mapsmessaging.network.protocol.impl.commons.ExtensionConfig;
+import software.amazon.awssdk.services.sns.SnsAsyncClient;
+import software.amazon.awssdk.services.sns.model.CreateTopicRequest;
+import software.amazon.awssdk.services.sns.model.ListTopicsRequest;
+import software.amazon.awssdk.services.sns.model.ListTopicsResponse;
+import software.amazon.awssdk.services.sns.model.Topic;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maps an outbound destination onto the ARN of its SNS topic, from topicMap, topicArnTemplate, topicResolution
+ * create or list, or topicArn, in that order. Anything beyond topicMap is cached with an expiry. In list mode the
+ * topics are fetched once per topicNotFoundExpiryMs and a destination with no topic is remembered for as long.
+ */
+public class SnsTopicResolver {
+
+  private static final String DESTINATION_TOKEN = "{destination}";
+  private static final int MAX_TOPIC_NAME = 256;
+  private static final int HASH_LENGTH = 16;
+
+  private enum Resolution {
+    STATIC, CREATE, LIST
+  }
+
+  private final SnsAsyncClient snsClient;
+  private final String defaultTopicArn;
+  private final String template;
+  private final Resolution resolution;
+  private final Map<String, String> topicMap;
+  private final Map<String, CachedArn> cache;
+  private final int maxCacheSize;
+  private final long expiryNanos;
+  private final long notFoundExpiryNanos;
+  private volatile TopicList topicList;
+
+  public SnsTopicResolver(SnsAsyncClient snsClient, ExtensionConfig config) {
+    this.snsClient = snsClient;
+    this.defaultTopicArn = config.getString("topicArn", "");
+    this.template = config.getString("topicArnTemplate", "");
+    this.resolution = Resolution.valueOf(config.getString("topicResolution", "static").toUpperCase(Locale.ROOT));
+    this.maxCacheSize = Math.max(1, config.getInt("topicCacheSize", 10_000));
+    this.expiryNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, config.getLong("topicCacheExpiryMs", 3_600_000)));
+    this.notFoundExpiryNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, config.getLong("topicNotFoundExpiryMs", 60_000)));
+    this.topicMap = new LinkedHashMap<>();
+    for (Map.Entry<String, Object> entry : config.getMap("topicMap").entrySet()) {
+      topicMap.put(entry.getKey(), entry.getValue().toString());
+    }
+    this.cache = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Pull links name the queue rather than a topic, so only an explicit topicMap entry for the queue selects the
+   * topic it is subscribed to, otherwise it is the default topic.
+   *
+   * @param queue The remote destination of the pull link
+   * @return The ARN of the topic to subscribe the queue to
+   */
+  public String resolveSubscriptionTopic(String queue) {
+    return topicMap.getOrDefault(queue, defaultTopicArn);
+  }
+
+  /**
+   * @param destination The remote destination name passed to outbound
+   * @return The ARN of the topic to publish to
+   * @throws IOException if the topic could not be resolved
+   */
+  public String resolve(String destination) throws IOException {
+    String arn = topicMap.get(destination);
+    if (arn != null) {
+      return arn;
+    }
+    if (template.isEmpty() && resolution == Resolution.STATIC) {
+      return defaultTopicArn;
+    }
+    long now = System.nanoTime();
+    CachedArn cached = cache.get(destination);
+    if (cached == null || cached.isExpired(now)) {
+      arn = lookup(destination, now);
+      if (cache.size() >= maxCacheSize) {
+        evict(now);
+      }
+      cached = new CachedArn(arn, now, arn != null ? expiryNanos : notFoundExpiryNanos);
+      cache.put(destination, cached);
+    }
+    if (cached.arn != null) {
+      return cached.arn;
+    }
+    if (!defaultTopicArn.isEmpty()) {
+      return defaultTopicArn;
+    }
+    throw new IOException("No SNS topic found for " + destination);
+  }
+
+  public void invalidate(String destination) {
+    cache.remove(destination);
+    topicList = null;
+  }
+
+  /**
+   * @return The ARN, or null if list mode found no topic of that name
+   */
+  private String lookup(String destination, long now) throws IOException {
+    String topicName = toTopicName(destination);
+    if (!template.isEmpty()) {
+      return template.replace(DESTINATION_TOKEN, topicName);
+    }
+    try {
+      if (resolution == Resolution.CREATE) {
+        return snsClient.createTopic(CreateTopicRequest.builder().name(topicName).build()).join().topicArn();
+      }
+      return listTopics(now).get(topicName);
+    } catch (Exception e) {
+      throw new IOException("Unable to resolve SNS topic for " + destination, e);
+    }
+  }
+
+  /**
+   * Fetches every topic in the account, keyed by name, unless the last fetch is still within topicNotFoundExpiryMs.
+   * Concurrent misses wait for the one fetch.
+   */
+  private Map<String, String> listTopics(long now) {
+    TopicList list = topicList;
+    if (list != null && now - list.fetched < notFoundExpiryNanos) {
+      return list.arns;
+    }
+    synchronized (this) {
+      list = topicList;
+      if (list != null && now - list.fetched < notFoundExpiryNanos) {
+        return list.arns;
+      }
+      Map<String, String> arns = new HashMap<>();
+      String nextToken = null;
+      do {
+        ListTopicsResponse response = snsClient.listTopics(ListTopicsRequest.builder().nextToken(nextToken).build()).join();
+        for (Topic topic : response.topics()) {
+          String topicArn = topic.topicArn();
+          arns.put(topicArn.substring(topicArn.lastIndexOf(':') + 1), topicArn);
+        }
+        nextToken = response.nextToken();
+      } while (nextToken != null);
+      topicList = new TopicList(arns, System.nanoTime());
+      return arns;
+    }
+  }
+
+  /**
+   * Drops expired entries, and if that does not free enough space, an arbitrary tenth of the cache
+   */
+  private void evict(long now) {
+    cache.values().removeIf(cached -> cached.isExpired(now));
+    int remove = cache.size() - (maxCacheSize - Math.max(1, maxCacheSize / 10));
+    Iterator<String> iterator = cache.keySet().iterator();
+    while (remove > 0 && iterator.hasNext()) {
+      iterator.next();
+      iterator.remove();
+      remove--;
+    }
+  }
+
+  /**
+   * Topic names may only contain letters, digits, '-' and '_' and are limited to 256 characters, FIFO topic
+   * names must also end in ".fifo" which is preserved. A destination that had to be changed gets a hash of the
+   * original name appended, so "a/b" and "a_b" are not published to the same topic.
+   */
+  static String toTopicName(String destination) {
+    String name = destination;
+    boolean fifo = name.endsWith(".fifo");
+    if (fifo) {
+      name = name.substring(0, name.length() - 5);
+    }
+    StringBuilder sb = new StringBuilder(name.length());
+    boolean changed = false;
+    for (int x = 0; x < name.length(); x++) {
+      char ch = name.charAt(x);
+      if ((ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z') || (ch >= '0' && ch <= '9') || ch == '-' || ch == '_') {
+        sb.append(ch);
+      } else {
+        changed = true;
+        if (sb.length() > 0) {
+          sb.append('_');
+        }
+      }
+    }
+    int max = fifo ? MAX_TOPIC_NAME - 5 : MAX_TOPIC_NAME;
+    if (changed || sb.length() > max) {
+      sb.setLength(Math.min(sb.length(), max - HASH_LENGTH - 1));
+      sb.append('-').append(hash(destination));
+    }
+    if (fifo) {
+      sb.append(".fifo");
+    }
+    return sb.toString();
+  }
+
+  private static String hash(String destination) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(destination.getBytes(StandardCharsets.UTF_8));
+      StringBuilder sb = new StringBuilder(HASH_LENGTH);
+      for (int x = 0; x < HASH_LENGTH / 2; x++) {
+        sb.append(Character.forDigit((digest[x] >> 4) & 0xf, 16)).append(Character.forDigit(digest[x] & 0xf, 16));
+      }
+      return sb.toString();
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to provide SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static final class CachedArn {
+    private final String arn;
+    private final long created;
+    private final long expiry;
+
+    CachedArn(String arn, long created, long expiry) {
+      this.arn = arn;
+      this.created = created;
+      this.expiry = expiry;
+    }
+
+    boolean isExpired(long now) {
+      return now - created >= expiry;
+    }
+  }
+
+  private static final class TopicList {
+    private final Map<String, String> arns;
+    private final long fetched;
+
+    TopicList(Map<String, String> arns, long fetched) {
+      this.arns = arns;
+      this.fetched = fetched;
+    }
+  }
+}
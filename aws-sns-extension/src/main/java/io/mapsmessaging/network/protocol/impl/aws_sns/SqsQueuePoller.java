@@ -0,0 +1,266 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.aws_sns;
+
+import io.mapsmessaging.api.message.TypedData;
+import io.mapsmessaging.logging.Logger;
+import io.mapsmessaging.logging.LoggerFactory;
+import io.mapsmessaging.network.protocol.impl.commons.ExtensionConfig;
+import io.mapsmessaging.network.protocol.impl.commons.LinkMetrics;
+import io.mapsmessaging.selector.IdentifierResolver;
+import io.mapsmessaging.selector.operators.ParserExecutor;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.model.*;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains an SQS queue subscribed to an SNS topic with several outstanding long polls. Messages accepted by inbound()
+ * or filtered out locally are deleted, the rest are redelivered until they have failed maxReceiveCount times.
+ */
+public class SqsQueuePoller implements Closeable {
+
+  public static final int MAX_MESSAGES = 10;
+
+  private final Logger logger;
+  private final SqsAsyncClient sqsClient;
+  private final String destination;
+  private final String queueUrl;
+  private final SnsMessageConverter converter;
+  private final InboundHandler handler;
+  private final ParserExecutor localFilter;
+  private final LinkMetrics link;
+  private final ReceiveMessageRequest receiveRequest;
+  private final int pollers;
+  private final long errorBackoffMs;
+  private final int maxReceiveCount;
+  private final AtomicBoolean running;
+  private final Set<CompletableFuture<ReceiveMessageResponse>> receives;
+  private final AtomicInteger outstanding;
+  private final CompletableFuture<Void> stopped;
+
+  public SqsQueuePoller(SqsAsyncClient sqsClient, String destination, String queueUrl, ExtensionConfig config,
+                        SnsMessageConverter converter, InboundHandler handler, ParserExecutor localFilter, LinkMetrics link) {
+    this.logger = LoggerFactory.getLogger(SqsQueuePoller.class);
+    this.sqsClient = sqsClient;
+    this.destination = destination;
+    this.queueUrl = queueUrl;
+    this.converter = converter;
+    this.handler = handler;
+    this.localFilter = localFilter;
+    this.link = link;
+    this.pollers = Math.max(1, config.getInt("pollersPerQueue", 2));
+    this.errorBackoffMs = Math.max(1, config.getLong("pollErrorBackoffMs", 1_000));
+    this.maxReceiveCount = Math.max(0, config.getInt("maxReceiveCount", 5));
+    this.running = new AtomicBoolean(false);
+    this.receives = ConcurrentHashMap.newKeySet();
+    this.outstanding = new AtomicInteger();
+    this.stopped = new CompletableFuture<>();
+
+    ReceiveMessageRequest.Builder builder = ReceiveMessageRequest.builder()
+        .queueUrl(queueUrl)
+        .maxNumberOfMessages(Math.max(1, Math.min(MAX_MESSAGES, config.getInt("receiveBatchSize", MAX_MESSAGES))))
+        .waitTimeSeconds(Math.max(0, Math.min(20, config.getInt("waitTimeSeconds", 20))))
+        .messageAttributeNames("All");
+    int visibilityTimeout = config.getInt("visibilityTimeoutSeconds", 0);
+    if (visibilityTimeout > 0) {
+      builder.visibilityTimeout(visibilityTimeout);
+    }
+    if (maxReceiveCount > 0) {
+      builder.messageSystemAttributeNames(MessageSystemAttributeName.APPROXIMATE_RECEIVE_COUNT);
+    }
+    this.receiveRequest = builder.build();
+  }
+
+  public void start() {
+    if (running.compareAndSet(false, true)) {
+      for (int x = 0; x < pollers; x++) {
+        poll();
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    stop();
+  }
+
+  /**
+   * Stops polling
+   *
+   * @return Completes once every receive has finished and the deliveries it started have been acknowledged
+   */
+  public CompletableFuture<Void> stop() {
+    running.set(false);
+    for (CompletableFuture<ReceiveMessageResponse> receive : receives) {
+      receive.cancel(true);
+    }
+    if (outstanding.get() == 0) {
+      stopped.complete(null);
+    }
+    return stopped;
+  }
+
+  private void poll() {
+    if (!running.get()) {
+      return;
+    }
+    outstanding.incrementAndGet();
+    CompletableFuture<ReceiveMessageResponse> receive = sqsClient.receiveMessage(receiveRequest);
+    receives.add(receive);
+    if (!running.get()) {
+      // stop() may have run before the receive was added
+      receive.cancel(true);
+    }
+    receive.whenComplete((response, error) -> {
+      receives.remove(receive);
+      if (error != null) {
+        if (running.get()) {
+          logger.log(SnsLogMessages.SNS_POLL_ERROR, destination, error);
+          link.error(error);
+          CompletableFuture.runAsync(this::poll, CompletableFuture.delayedExecutor(errorBackoffMs, TimeUnit.MILLISECONDS));
+        }
+        finished();
+        return;
+      }
+      if (running.get()) {
+        deliver(response.messages()).whenComplete((result, ackError) -> finished());
+        poll();
+      } else {
+        release(response.messages()).whenComplete((result, releaseError) -> finished());
+      }
+    });
+  }
+
+  private void finished() {
+    if (outstanding.decrementAndGet() == 0 && !running.get()) {
+      stopped.complete(null);
+    }
+  }
+
+  private CompletableFuture<?> deliver(List<Message> messages) {
+    if (messages.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+    List<DeleteMessageBatchRequestEntry> acknowledged = new ArrayList<>(messages.size());
+    for (Message message : messages) {
+      long start = System.nanoTime();
+      try {
+        io.mapsmessaging.api.message.Message mapsMessage = converter.toMapsMessage(message);
+        if (localFilter == null || matches(mapsMessage)) {
+          handler.inbound(destination, mapsMessage);
+          link.received(mapsMessage.getOpaqueData().length, start);
+        }
+        acknowledged.add(deleteEntry(acknowledged.size(), message));
+      } catch (Exception e) {
+        int receiveCount = receiveCount(message);
+        if (maxReceiveCount > 0 && receiveCount >= maxReceiveCount) {
+          logger.log(SnsLogMessages.SNS_POISON_MESSAGE, message.messageId(), destination, receiveCount, e);
+          link.error("poisonMessage");
+          acknowledged.add(deleteEntry(acknowledged.size(), message));
+        } else {
+          logger.log(SnsLogMessages.SNS_INBOUND_ERROR, destination, e);
+          link.error(e);
+        }
+      }
+    }
+    if (acknowledged.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return acknowledge(acknowledged);
+  }
+
+  private static DeleteMessageBatchRequestEntry deleteEntry(int id, Message message) {
+    return DeleteMessageBatchRequestEntry.builder()
+        .id(Integer.toString(id))
+        .receiptHandle(message.receiptHandle())
+        .build();
+  }
+
+  private static int receiveCount(Message message) {
+    String count = message.attributes().get(MessageSystemAttributeName.APPROXIMATE_RECEIVE_COUNT);
+    try {
+      return count != null ? Integer.parseInt(count) : 0;
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+
+  private boolean matches(io.mapsmessaging.api.message.Message message) {
+    Map<String, TypedData> dataMap = message.getDataMap();
+    return localFilter.evaluate((IdentifierResolver) key -> {
+      TypedData typedData = dataMap.get(key);
+      return typedData != null ? typedData.getData() : null;
+    });
+  }
+
+  private CompletableFuture<?> acknowledge(List<DeleteMessageBatchRequestEntry> entries) {
+    DeleteMessageBatchRequest request = DeleteMessageBatchRequest.builder()
+        .queueUrl(queueUrl)
+        .entries(entries)
+        .build();
+    return sqsClient.deleteMessageBatch(request).whenComplete((response, error) -> {
+      if (error != null) {
+        logger.log(SnsLogMessages.SNS_ACK_ERROR, destination, error);
+        link.error(error);
+      } else if (response.hasFailed() && !response.failed().isEmpty()) {
+        for (BatchResultErrorEntry failed : response.failed()) {
+          logger.log(SnsLogMessages.SNS_ACK_FAILED, destination, failed.code(), failed.message());
+          link.error(failed.code());
+        }
+      }
+    });
+  }
+
+  /**
+   * Makes messages received while stopping visible again straight away
+   */
+  private CompletableFuture<?> release(List<Message> messages) {
+    if (messages.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+    List<ChangeMessageVisibilityBatchRequestEntry> entries = new ArrayList<>(messages.size());
+    for (Message message : messages) {
+      entries.add(ChangeMessageVisibilityBatchRequestEntry.builder()
+          .id(Integer.toString(entries.size()))
+          .receiptHandle(message.receiptHandle())
+          .visibilityTimeout(0)
+          .build());
+    }
+    ChangeMessageVisibilityBatchRequest request = ChangeMessageVisibilityBatchRequest.builder()
+        .queueUrl(queueUrl)
+        .entries(entries)
+        .build();
+    return sqsClient.changeMessageVisibilityBatch(request).whenComplete((response, error) -> {
+      if (error != null) {
+        logger.log(SnsLogMessages.SNS_RELEASE_ERROR, destination, error);
+      }
+    });
+  }
+}
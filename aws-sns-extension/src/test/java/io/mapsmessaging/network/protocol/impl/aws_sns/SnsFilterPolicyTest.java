@@ -0,0 +1,170 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.aws_sns;
+
+import io.mapsmessaging.selector.ParseException;
+import io.mapsmessaging.selector.SelectorParser;
+import io.mapsmessaging.selector.operators.ParserExecutor;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SnsFilterPolicyTest {
+
+  @Test
+  void equality() throws ParseException {
+    assertEquals("{\"region\":[\"eu\"]}", translate("region = 'eu'"));
+    assertEquals("{\"count\":[{\"numeric\":[\"=\",5]}]}", translate("count = 5"));
+    assertEquals("{\"active\":[\"true\"]}", translate("active = TRUE"));
+    assertEquals("{\"region\":[\"it's\"]}", translate("region = 'it''s'"));
+  }
+
+  @Test
+  void notEqual() throws ParseException {
+    assertEquals("{\"region\":[{\"anything-but\":[\"eu\"]}]}", translate("region <> 'eu'"));
+    assertEquals("{\"count\":[{\"anything-but\":[5]}]}", translate("count <> 5"));
+  }
+
+  @Test
+  void numericComparisons() throws ParseException {
+    assertEquals("{\"price\":[{\"numeric\":[\">\",10]}]}", translate("price > 10"));
+    assertEquals("{\"price\":[{\"numeric\":[\">=\",10.5]}]}", translate("price >= 10.5"));
+    assertEquals("{\"price\":[{\"numeric\":[\"<\",-3]}]}", translate("price < -3"));
+    assertEquals("{\"price\":[{\"numeric\":[\"<=\",1000]}]}", translate("price <= 1.0E3"));
+    assertEquals("{\"price\":[{\"numeric\":[\"<\",5]}]}", translate("5 > price"));
+  }
+
+  @Test
+  void numberSuffixesAreWrittenAsJsonNumbers() throws ParseException {
+    assertEquals("{\"price\":[{\"numeric\":[\">\",1.5]}]}", translate("price > 1.5f"));
+    assertEquals("{\"price\":[{\"numeric\":[\">\",10]}]}", translate("price > 10d"));
+    assertEquals("{\"price\":[{\"numeric\":[\"=\",2.25]}]}", translate("price = 2.25D"));
+  }
+
+  @Test
+  void stringRangeFallsBack() throws ParseException {
+    assertNull(translate("region > 'eu'"));
+  }
+
+  @Test
+  void rangeOnOneAttributeIsMerged() throws ParseException {
+    String expected = "{\"price\":[{\"numeric\":[\">\",1,\"<\",5]}]}";
+    assertEquals(expected, translate("price > 1 AND price < 5"));
+    assertEquals(expected, translate("price < 5 AND price > 1"));
+    assertNull(translate("price > 1 AND price > 2"));
+    assertNull(translate("region = 'eu' AND region = 'us'"));
+  }
+
+  @Test
+  void in() throws ParseException {
+    assertEquals("{\"region\":[\"eu\",\"us\"]}", translate("region IN ('eu', 'us')"));
+    assertEquals("{\"region\":[{\"anything-but\":[\"eu\",\"us\"]}]}", translate("region NOT IN ('eu', 'us')"));
+  }
+
+  @Test
+  void between() throws ParseException {
+    assertEquals("{\"price\":[{\"numeric\":[\">=\",1,\"<=\",5]}]}", translate("price BETWEEN 1 AND 5"));
+    assertEquals("{\"price\":[{\"numeric\":[\"<\",1]},{\"numeric\":[\">\",5]}]}", translate("price NOT BETWEEN 1 AND 5"));
+    assertNull(translate("region BETWEEN 'a' AND 'm'"));
+  }
+
+  @Test
+  void like() throws ParseException {
+    assertEquals("{\"name\":[{\"prefix\":\"sensor\"}]}", translate("name LIKE 'sensor%'"));
+    assertEquals("{\"name\":[{\"suffix\":\".json\"}]}", translate("name LIKE '%.json'"));
+    assertEquals("{\"name\":[\"exact\"]}", translate("name LIKE 'exact'"));
+    assertEquals("{\"name\":[{\"anything-but\":{\"prefix\":\"sensor\"}}]}", translate("name NOT LIKE 'sensor%'"));
+    assertEquals("{\"name\":[{\"anything-but\":[\"exact\"]}]}", translate("name NOT LIKE 'exact'"));
+  }
+
+  @Test
+  void likeWithoutFilterPolicyFormFallsBack() throws ParseException {
+    assertNull(translate("name LIKE 'a_b%'"));
+    assertNull(translate("name LIKE '%mid%'"));
+    assertNull(translate("name LIKE 'a!%%' ESCAPE '!'"));
+  }
+
+  @Test
+  void isNull() throws ParseException {
+    assertEquals("{\"region\":[{\"exists\":false}]}", translate("region IS NULL"));
+    assertEquals("{\"region\":[{\"exists\":true}]}", translate("region IS NOT NULL"));
+  }
+
+  @Test
+  void not() throws ParseException {
+    assertNull(translate("NOT region = 'eu'"));
+    assertNull(translate("NOT (region = 'eu')"));
+    assertNull(translate("kind = 'x' AND NOT (region = 'eu' OR count = 5)"));
+  }
+
+  @Test
+  void and() throws ParseException {
+    assertEquals("{\"region\":[\"eu\"],\"count\":[{\"numeric\":[\"=\",5]}]}", translate("region = 'eu' AND count = 5"));
+  }
+
+  @Test
+  void orOnOneAttributeBecomesAlternatives() throws ParseException {
+    assertEquals("{\"region\":[\"eu\",\"us\"]}", translate("region = 'eu' OR region = 'us'"));
+  }
+
+  @Test
+  void orOfAndExpansion() throws ParseException {
+    assertEquals("{\"$or\":[{\"region\":[\"eu\"]},{\"count\":[{\"numeric\":[\"=\",5]}]}]}",
+        translate("region = 'eu' OR count = 5"));
+    assertEquals("{\"$or\":[{\"region\":[\"eu\"],\"count\":[{\"numeric\":[\"=\",5]}]},{\"type\":[\"alarm\"],\"level\":[{\"numeric\":[\">\",3]}]}]}",
+        translate("(region = 'eu' AND count = 5) OR (type = 'alarm' AND level > 3)"));
+    assertEquals("{\"kind\":[\"x\"],\"$or\":[{\"region\":[\"eu\"]},{\"count\":[{\"numeric\":[\"=\",5]}]}]}",
+        translate("kind = 'x' AND (region = 'eu' OR count = 5)"));
+    assertNull(translate("(a = 1 OR b = 2) AND (c = 3 OR d = 4)"));
+  }
+
+  @Test
+  void combinationLimit() throws ParseException {
+    // 6 x 5 x 5 is exactly the limit, 5 x 5 x 5 x 2 is over it
+    assertNotNull(translate("a IN ('1','2','3','4','5','6') AND b IN ('1','2','3','4','5') AND c IN ('1','2','3','4','5')"));
+    assertNull(translate("a IN ('1','2','3','4','5') AND b IN ('1','2','3','4','5') AND c IN ('1','2','3','4','5') AND d IN ('1','2')"));
+  }
+
+  @Test
+  void combinationLimitSumsOrBranches() throws ParseException {
+    // 5 x 5 x 5 + 5 x 5 is exactly the limit
+    String branches = "(a IN ('1','2','3','4','5') AND b IN ('1','2','3','4','5') AND c IN ('1','2','3','4','5'))" +
+        " OR (d IN ('1','2','3','4','5') AND e IN ('1','2','3','4','5'))";
+    assertNotNull(translate(branches));
+    assertNull(translate(branches + " OR f = 1"));
+    assertNull(translate("g IN ('1','2') AND (" + branches + ")"));
+  }
+
+  @Test
+  void untranslatableSelectorsFallBack() throws ParseException {
+    assertNull(SnsFilterPolicy.translate(null));
+    assertNull(translate("TRUE"));
+    assertNull(translate("price + 1 > 5"));
+    assertNull(translate("price * 2 > 5"));
+    assertNull(translate("a = b"));
+  }
+
+  private static String translate(String selector) throws ParseException {
+    ParserExecutor executor = SelectorParser.compile(selector);
+    return SnsFilterPolicy.translate(executor);
+  }
+}
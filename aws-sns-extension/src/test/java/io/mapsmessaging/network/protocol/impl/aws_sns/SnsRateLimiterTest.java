@@ -0,0 +1,74 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.aws_sns;
+
+import io.mapsmessaging.network.protocol.impl.commons.ExtensionConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnsRateLimiterTest {
+
+  private static final String TOPIC = "arn:aws:sns:eu-west-1:123456789012:alerts";
+
+  @Test
+  void unlimitedTopicAdaptsOnceThrottled() {
+    SnsRateLimiter limiter = new SnsRateLimiter(config(0));
+    assertTrue(limiter.tryAcquire(TOPIC, 1_000_000));
+    assertEquals(Double.POSITIVE_INFINITY, limiter.getTopicRate(TOPIC));
+
+    limiter.onThrottled(TOPIC);
+    double rate = limiter.getTopicRate(TOPIC);
+    assertTrue(rate >= 1 && rate < Double.POSITIVE_INFINITY);
+    assertFalse(limiter.tryAcquire(TOPIC, 1_000_000));
+  }
+
+  @Test
+  void limitedTopicIsCutByTheDecreasePercent() {
+    SnsRateLimiter limiter = new SnsRateLimiter(config(1000));
+    assertEquals(1000, limiter.getTopicRate(TOPIC));
+    assertFalse(limiter.tryAcquire(TOPIC, 1_000));
+
+    limiter.onThrottled(TOPIC);
+    assertEquals(500, limiter.getTopicRate(TOPIC));
+  }
+
+  @Test
+  void rateRecoversWhileRequestsSucceed() throws InterruptedException {
+    SnsRateLimiter limiter = new SnsRateLimiter(config(0));
+    assertTrue(limiter.tryAcquire(TOPIC, 1_000));
+    limiter.onThrottled(TOPIC);
+    double cut = limiter.getTopicRate(TOPIC);
+    Thread.sleep(200);
+    limiter.onSuccess(TOPIC);
+    assertTrue(limiter.getTopicRate(TOPIC) > cut);
+  }
+
+  private static ExtensionConfig config(long topicRate) {
+    Map<String, Object> map = new HashMap<>();
+    map.put("topicPublishRateLimit", topicRate);
+    return new ExtensionConfig(map);
+  }
+}
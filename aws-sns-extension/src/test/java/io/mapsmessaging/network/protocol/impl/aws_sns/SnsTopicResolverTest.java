@@ -0,0 +1,107 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.aws_sns;
+
+import io.mapsmessaging.network.protocol.impl.commons.ExtensionConfig;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.sns.SnsAsyncClient;
+import software.amazon.awssdk.services.sns.model.ListTopicsRequest;
+import software.amazon.awssdk.services.sns.model.ListTopicsResponse;
+import software.amazon.awssdk.services.sns.model.Topic;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SnsTopicResolverTest {
+
+  private static final String PREFIX = "arn:aws:sns:eu-west-1:123456789012:";
+
+  @Test
+  void listIsFetchedOncePerRefresh() throws IOException {
+    ListingClient client = new ListingClient();
+    SnsTopicResolver resolver = new SnsTopicResolver(client, config(""));
+    assertEquals(PREFIX + "alerts", resolver.resolve("alerts"));
+    assertEquals(PREFIX + "orders", resolver.resolve("orders"));
+    assertThrows(IOException.class, () -> resolver.resolve("missing"));
+    assertEquals(2, client.calls.get());
+  }
+
+  @Test
+  void missingTopicIsRemembered() {
+    ListingClient client = new ListingClient();
+    SnsTopicResolver resolver = new SnsTopicResolver(client, config(""));
+    assertThrows(IOException.class, () -> resolver.resolve("missing"));
+    assertThrows(IOException.class, () -> resolver.resolve("missing"));
+    assertEquals(2, client.calls.get());
+  }
+
+  @Test
+  void missingTopicFallsBackToTheDefault() throws IOException {
+    ListingClient client = new ListingClient();
+    SnsTopicResolver resolver = new SnsTopicResolver(client, config(PREFIX + "default"));
+    assertEquals(PREFIX + "default", resolver.resolve("missing"));
+    assertEquals(PREFIX + "default", resolver.resolve("missing"));
+    assertEquals(2, client.calls.get());
+  }
+
+  private static ExtensionConfig config(String topicArn) {
+    Map<String, Object> map = new HashMap<>();
+    map.put("topicResolution", "list");
+    map.put("topicArn", topicArn);
+    return new ExtensionConfig(map);
+  }
+
+  /**
+   * Two pages of topics, counting the ListTopics calls
+   */
+  private static final class ListingClient implements SnsAsyncClient {
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Override
+    public CompletableFuture<ListTopicsResponse> listTopics(ListTopicsRequest request) {
+      calls.incrementAndGet();
+      if (request.nextToken() == null) {
+        return CompletableFuture.completedFuture(ListTopicsResponse.builder()
+            .topics(Topic.builder().topicArn(PREFIX + "alerts").build())
+            .nextToken("page2")
+            .build());
+      }
+      return CompletableFuture.completedFuture(ListTopicsResponse.builder()
+          .topics(Topic.builder().topicArn(PREFIX + "orders").build())
+          .build());
+    }
+
+    @Override
+    public String serviceName() {
+      return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+      // Nothing to release
+    }
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.profile.ProfilerConfig;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar. Accepts the normal JMH command line but always adds the GC profiler, so the
+ * allocation rate per operation is reported alongside the timings, and writes a JSON result file by default so runs
+ * can be compared against the checked in baseline.
+ */
+public class BenchmarkRunner {
+
+  private static final String DEFAULT_RESULT = "benchmarks-result.json";
+
+  public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+    CommandLineOptions commandLine = new CommandLineOptions(args);
+    ChainedOptionsBuilder builder = new OptionsBuilder().parent(commandLine);
+    if (!hasGcProfiler(commandLine)) {
+      builder.addProfiler(GCProfiler.class);
+    }
+    if (!commandLine.getResult().hasValue()) {
+      builder.result(DEFAULT_RESULT);
+    }
+    if (!commandLine.getResultFormat().hasValue()) {
+      builder.resultFormat(ResultFormatType.JSON);
+    }
+    new Runner(builder.build()).run();
+  }
+
+  private static boolean hasGcProfiler(CommandLineOptions commandLine) {
+    for (ProfilerConfig profiler : commandLine.getProfilers()) {
+      if ("gc".equals(profiler.getKlass()) || GCProfiler.class.getName().equals(profiler.getKlass())) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.benchmarks;
+
+import io.mapsmessaging.network.protocol.impl.commons.Lz4Codec;
+import io.mapsmessaging.network.protocol.impl.commons.PayloadCodec;
+import io.mapsmessaging.network.protocol.impl.commons.ZstdCodec;
+import io.mapsmessaging.network.protocol.impl.commons.ZstdDictionaryCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Payload codecs on JSON telemetry records from a couple of hundred bytes to 16KB, the compression ratio of each is
+ * printed after setup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class CodecBenchmark {
+
+  private static final int RECORDS = 1024;
+  private static final int TRAINING_RECORDS = 4096;
+  private static final int DICTIONARY_SIZE = 16 * 1024;
+
+  @Param({Lz4Codec.NAME, ZstdCodec.NAME, ZstdDictionaryCodec.NAME})
+  public String codecName;
+
+  @Param({"200", "1000", "4000", "16000"})
+  public int payloadSize;
+
+  private PayloadCodec codec;
+  private byte[][] payloads;
+  private byte[][] encoded;
+  private int next;
+
+  @Setup
+  public void setup() throws IOException {
+    codec = createCodec();
+    Random random = new Random(42);
+    payloads = new byte[RECORDS][];
+    encoded = new byte[RECORDS][];
+    long rawBytes = 0;
+    long encodedBytes = 0;
+    for (int x = 0; x < RECORDS; x++) {
+      payloads[x] = PropertyMixes.telemetryPayload(random, payloadSize);
+      encoded[x] = codec.encode(payloads[x]);
+      if (codec.decode(encoded[x], Integer.MAX_VALUE - 8).length != payloads[x].length) {
+        throw new IllegalStateException(codecName + " did not round trip");
+      }
+      rawBytes += payloads[x].length;
+      encodedBytes += encoded[x].length;
+    }
+    System.out.printf(Locale.ROOT, "%n%s on %d byte records: %d bytes on average, %.1f%% of the original%n",
+        codecName, payloadSize, encodedBytes / RECORDS, encodedBytes * 100.0 / rawBytes);
+  }
+
+  private PayloadCodec createCodec() {
+    switch (codecName) {
+      case Lz4Codec.NAME:
+        return new Lz4Codec();
+
+      case ZstdCodec.NAME:
+        return new ZstdCodec(3);
+
+      default:
+        Random random = new Random(7);
+        List<byte[]> samples = new ArrayList<>(TRAINING_RECORDS);
+        for (int x = 0; x < TRAINING_RECORDS; x++) {
+          samples.add(PropertyMixes.telemetryPayload(random, payloadSize));
+        }
+        return new ZstdDictionaryCodec(ZstdDictionaryCodec.train(samples, DICTIONARY_SIZE), 3);
+    }
+  }
+
+  @Benchmark
+  public byte[] encode() {
+    byte[] payload = payloads[next];
+    next = (next + 1) & (RECORDS - 1);
+    return codec.encode(payload);
+  }
+
+  @Benchmark
+  public byte[] decode() throws IOException {
+    byte[] payload = encoded[next];
+    next = (next + 1) & (RECORDS - 1);
+    return codec.decode(payload, Integer.MAX_VALUE - 8);
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.benchmarks;
+
+import io.mapsmessaging.api.MessageBuilder;
+import io.mapsmessaging.api.message.Message;
+import io.mapsmessaging.network.protocol.impl.apache_pulsar.MapConverter;
+import io.mapsmessaging.network.protocol.impl.aws_sns.SnsMessageConverter;
+import io.mapsmessaging.network.protocol.impl.commons.ConversionCache;
+import io.mapsmessaging.network.protocol.impl.commons.ExtensionConfig;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One message sent to several remote links, each link converting it as its extension's outbound() would, with and
+ * without the shared conversion cache. Each operation takes the next of a set of messages larger than the cache, so
+ * the first link always converts and, with the cache, the rest reuse its result.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class FanOutBenchmark {
+
+  private static final int MESSAGES = 16384;
+
+  @Param({"1", "2", "4", "8"})
+  public int links;
+
+  @Param({"true", "false"})
+  public boolean conversionCache;
+
+  @Param({"4", "10"})
+  public int propertyCount;
+
+  private SnsMessageConverter[] snsLinks;
+  private String[] linkNames;
+  private ConversionCache cache;
+  private Message[] messages;
+  private int next;
+
+  @Setup
+  public void setup() {
+    Map<String, Object> settings = new HashMap<>();
+    settings.put("conversionCache", conversionCache);
+    ExtensionConfig config = new ExtensionConfig(settings);
+    cache = ConversionCache.forConfig(config);
+    snsLinks = new SnsMessageConverter[links];
+    linkNames = new String[links];
+    for (int x = 0; x < links; x++) {
+      snsLinks[x] = new SnsMessageConverter(config);
+      linkNames[x] = "link" + x;
+    }
+    messages = new Message[MESSAGES];
+    for (int x = 0; x < MESSAGES; x++) {
+      messages[x] = new MessageBuilder()
+          .setOpaqueData(PropertyMixes.textPayload(1024))
+          .setDataMap(PropertyMixes.typed(PropertyMixes.MIXED, propertyCount))
+          .build();
+    }
+  }
+
+  private Message nextMessage() {
+    Message message = messages[next];
+    next = (next + 1) & (MESSAGES - 1);
+    return message;
+  }
+
+  @Benchmark
+  public void snsBatchEntry(Blackhole blackhole) {
+    Message message = nextMessage();
+    for (int x = 0; x < links; x++) {
+      blackhole.consume(snsLinks[x].toBatchEntry(message, linkNames[x], null, null));
+    }
+  }
+
+  @Benchmark
+  public void pulsarProperties(Blackhole blackhole) {
+    Message message = nextMessage();
+    for (int x = 0; x < links; x++) {
+      blackhole.consume(cache.get(message, MapConverter.propertiesKey(null), m -> MapConverter.toProperties(m.getDataMap(), null)));
+    }
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.benchmarks;
+
+import io.mapsmessaging.api.message.TypedData;
+import io.mapsmessaging.network.protocol.impl.apache_pulsar.MapConverter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pulsar string properties parsed back into typed data.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MapConverterBenchmark {
+
+  @Param({"0", "4", "16"})
+  public int propertyCount;
+
+  @Param({PropertyMixes.STRING, PropertyMixes.NUMERIC, PropertyMixes.MIXED})
+  public String mix;
+
+  private Map<String, String> properties;
+
+  @Setup
+  public void setup() {
+    properties = PropertyMixes.strings(mix, propertyCount);
+  }
+
+  @Benchmark
+  public Map<String, TypedData> convertMap() {
+    return MapConverter.convertMap(properties);
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.benchmarks;
+
+import io.mapsmessaging.api.MessageBuilder;
+import io.mapsmessaging.api.message.Message;
+import io.mapsmessaging.api.message.TypedData;
+import io.mapsmessaging.network.protocol.impl.apache_pulsar.MapConverter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Message construction as done by the Pulsar message listener for every received event, with and without the cost of
+ * the property conversion.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MessageBuilderBenchmark {
+
+  @Param({"64", "1024", "16384"})
+  public int payloadSize;
+
+  @Param({"0", "4", "16"})
+  public int propertyCount;
+
+  private byte[] payload;
+  private Map<String, String> properties;
+  private Map<String, TypedData> dataMap;
+
+  @Setup
+  public void setup() {
+    payload = PropertyMixes.textPayload(payloadSize);
+    properties = PropertyMixes.strings(PropertyMixes.MIXED, propertyCount);
+    dataMap = MapConverter.convertMap(properties);
+  }
+
+  @Benchmark
+  public Message pulsarInbound() {
+    return new MessageBuilder()
+        .setOpaqueData(payload)
+        .setDataMap(MapConverter.convertMap(properties))
+        .build();
+  }
+
+  @Benchmark
+  public Message build() {
+    return new MessageBuilder()
+        .setOpaqueData(payload)
+        .setDataMap(dataMap)
+        .build();
+  }
+}
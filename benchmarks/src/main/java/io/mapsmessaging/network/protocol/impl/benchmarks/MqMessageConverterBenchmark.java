@@ -0,0 +1,86 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.benchmarks;
+
+import com.ibm.mq.MQException;
+import com.ibm.mq.MQMessage;
+import io.mapsmessaging.api.MessageBuilder;
+import io.mapsmessaging.api.message.Message;
+import io.mapsmessaging.api.message.TypedData;
+import io.mapsmessaging.network.protocol.impl.commons.ExtensionConfig;
+import io.mapsmessaging.network.protocol.impl.commons.PayloadCodecs;
+import io.mapsmessaging.network.protocol.impl.ibm_mq.MqMessageConverter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outbound property switch and inbound property enumeration of the MQ extension, through the same calls MqProtocol
+ * makes with no codec configured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MqMessageConverterBenchmark {
+
+  private static final String DESTINATION = "benchmark";
+
+  @Param({"0", "4", "16"})
+  public int propertyCount;
+
+  @Param({PropertyMixes.STRING, PropertyMixes.NUMERIC, PropertyMixes.MIXED})
+  public String mix;
+
+  private Message message;
+  private MQMessage mqMessage;
+  private PayloadCodecs codecs;
+
+  @Setup
+  public void setup() throws MQException, IOException {
+    message = new MessageBuilder()
+        .setOpaqueData(PropertyMixes.textPayload(1024))
+        .setDataMap(PropertyMixes.typed(mix, propertyCount))
+        .build();
+    codecs = new PayloadCodecs(new ExtensionConfig(new HashMap<>()));
+    mqMessage = outbound();
+  }
+
+  @Benchmark
+  public MQMessage outbound() throws MQException, IOException {
+    return MqMessageConverter.toMqMessage(message, codecs.encode(message, DESTINATION));
+  }
+
+  @Benchmark
+  public Map<String, TypedData> inboundProperties() throws MQException {
+    return MqMessageConverter.getProperties(mqMessage);
+  }
+
+  @Benchmark
+  public Message inbound() throws MQException, IOException {
+    mqMessage.seek(0);
+    return MqMessageConverter.toMapsMessage(mqMessage, codecs);
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.benchmarks;
+
+import io.mapsmessaging.api.message.TypedData;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Builds the message properties and payloads used by the benchmarks, the mixes reflect what we typically see on the
+ * links, string only headers, numeric telemetry and a mixture of both.
+ */
+public final class PropertyMixes {
+
+  public static final String STRING = "string";
+  public static final String NUMERIC = "numeric";
+  public static final String MIXED = "mixed";
+
+  private static final String[] SITES = {"north-yard", "south-yard", "depot-3", "substation-12", "pump-house"};
+  private static final String[] METRICS = {"temperature", "humidity", "pressure", "voltage", "current", "vibration"};
+  private static final String[] UNITS = {"C", "%", "kPa", "V", "A", "mm/s"};
+
+  private PropertyMixes() {
+  }
+
+  public static Map<String, TypedData> typed(String mix, int count) {
+    Map<String, TypedData> map = new LinkedHashMap<>();
+    for (int x = 0; x < count; x++) {
+      map.put("property_" + x, new TypedData(typedValue(mix, x)));
+    }
+    return map;
+  }
+
+  public static Map<String, String> strings(String mix, int count) {
+    Map<String, String> map = new LinkedHashMap<>();
+    for (int x = 0; x < count; x++) {
+      map.put("property_" + x, String.valueOf(typedValue(mix, x)));
+    }
+    return map;
+  }
+
+  public static byte[] textPayload(int size) {
+    StringBuilder sb = new StringBuilder(size);
+    sb.append("{\"sensor\":\"temperature\",\"values\":[");
+    while (sb.length() < size) {
+      sb.append(sb.length() % 97).append(',');
+    }
+    sb.setLength(size);
+    return sb.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * A JSON telemetry record of at least the given size, a device header followed by readings. Records from the same
+   * random source share their structure and field names but not their values, as a device fleet's do.
+   */
+  public static byte[] telemetryPayload(Random random, int size) {
+    StringBuilder sb = new StringBuilder(size + 128);
+    sb.append("{\"deviceId\":\"sensor-").append(String.format(Locale.ROOT, "%05d", random.nextInt(50_000)))
+        .append("\",\"site\":\"").append(SITES[random.nextInt(SITES.length)])
+        .append("\",\"timestamp\":").append(1_760_000_000_000L + random.nextInt(1_000_000_000))
+        .append(",\"firmware\":\"4.2.").append(random.nextInt(10))
+        .append("\",\"readings\":[");
+    boolean first = true;
+    while (first || sb.length() < size - 2) {
+      if (!first) {
+        sb.append(',');
+      }
+      first = false;
+      int metric = random.nextInt(METRICS.length);
+      sb.append("{\"metric\":\"").append(METRICS[metric])
+          .append("\",\"value\":").append(String.format(Locale.ROOT, "%.2f", random.nextDouble() * 100))
+          .append(",\"unit\":\"").append(UNITS[metric])
+          .append("\",\"quality\":\"").append(random.nextInt(50) == 0 ? "suspect" : "good").append("\"}");
+    }
+    sb.append("]}");
+    return sb.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  public static byte[] binaryPayload(int size) {
+    byte[] payload = new byte[size];
+    for (int x = 0; x < size; x++) {
+      payload[x] = (byte) (x * 31 + 0x80);
+    }
+    return payload;
+  }
+
+  private static Object typedValue(String mix, int index) {
+    switch (mix) {
+      case STRING:
+        return "value-" + index;
+
+      case NUMERIC:
+        return numericValue(index);
+
+      case MIXED:
+      default:
+        switch (index % 4) {
+          case 0:
+            return "value-" + index;
+          case 1:
+            return (index & 1) == 0;
+          default:
+            return numericValue(index);
+        }
+    }
+  }
+
+  private static Object numericValue(int index) {
+    switch (index % 3) {
+      case 0:
+        return index * 1000;
+      case 1:
+        return index * 1_000_000_000L;
+      default:
+        return index * 1.5d;
+    }
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.benchmarks;
+
+import io.mapsmessaging.api.MessageBuilder;
+import io.mapsmessaging.api.message.Message;
+import io.mapsmessaging.network.protocol.impl.aws_sns.SnsBatchPublisher;
+import io.mapsmessaging.network.protocol.impl.aws_sns.SnsMessageConverter;
+import io.mapsmessaging.network.protocol.impl.commons.ExtensionConfig;
+import org.openjdk.jmh.annotations.*;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequestEntry;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publish request building in the SNS extension, the payload encoding, attribute mapping and the batch size
+ * accounting done for every entry.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SnsRequestBenchmark {
+
+  private static final String DESTINATION = "benchmark";
+
+  @Param({"text", "binary"})
+  public String payloadType;
+
+  @Param({"1024", "16384"})
+  public int payloadSize;
+
+  @Param({"0", "4", "10"})
+  public int propertyCount;
+
+  private SnsMessageConverter converter;
+  private Message message;
+  private PublishBatchRequestEntry entry;
+
+  @Setup
+  public void setup() {
+    // The same message is converted every time, without this it would measure the conversion cache instead
+    Map<String, Object> config = new HashMap<>();
+    config.put("conversionCache", false);
+    converter = new SnsMessageConverter(new ExtensionConfig(config));
+    byte[] payload = "text".equals(payloadType) ? PropertyMixes.textPayload(payloadSize) : PropertyMixes.binaryPayload(payloadSize);
+    message = new MessageBuilder()
+        .setOpaqueData(payload)
+        .setDataMap(PropertyMixes.typed(PropertyMixes.MIXED, propertyCount))
+        .build();
+    entry = converter.toBatchEntry(message, DESTINATION, null, null);
+  }
+
+  @Benchmark
+  public PublishBatchRequestEntry toBatchEntry() {
+    return converter.toBatchEntry(message, DESTINATION, null, null);
+  }
+
+  @Benchmark
+  public PublishBatchRequestEntry toFifoBatchEntry() {
+    return converter.toBatchEntry(message, DESTINATION, "group", "deduplication");
+  }
+
+  @Benchmark
+  public int sizeOf() {
+    return SnsBatchPublisher.sizeOf(entry);
+  }
+}
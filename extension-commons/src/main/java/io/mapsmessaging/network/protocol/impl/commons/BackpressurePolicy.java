@@ -0,0 +1,45 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.commons;
+
+import java.util.Locale;
+
+/**
+ * What an {@link OutboundPipeline} does with a message submitted while its ring buffer is full
+ */
+public enum BackpressurePolicy {
+
+  /** The caller waits for space, pushing the back pressure into the local delivery */
+  BLOCK,
+
+  /** The oldest queued message is discarded to make room, favouring fresh data such as telemetry */
+  DROP_OLDEST,
+
+  /** The message is handed to the pipeline's {@link SpillStore} and fed back in order once the buffer drains */
+  SPILL;
+
+  public static BackpressurePolicy parse(String value) {
+    String val = value.trim().toUpperCase(Locale.ROOT).replace('-', '_');
+    if (val.equals("DROP")) {
+      return DROP_OLDEST;
+    }
+    return valueOf(val);
+  }
+}
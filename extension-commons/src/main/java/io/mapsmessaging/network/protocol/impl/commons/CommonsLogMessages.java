@@ -0,0 +1,76 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.commons;
+
+import io.mapsmessaging.logging.Category;
+import io.mapsmessaging.logging.LEVEL;
+import io.mapsmessaging.logging.LogMessage;
+import lombok.Getter;
+
+@Getter
+public enum CommonsLogMessages implements LogMessage {
+
+  PIPELINE_STARTED(LEVEL.INFO, COMMONS_CATEGORY.PIPELINE, "Outbound pipeline {} started with capacity {} using {} policy"),
+  PIPELINE_STOPPED(LEVEL.INFO, COMMONS_CATEGORY.PIPELINE, "Outbound pipeline {} stopped, {} messages left undelivered"),
+  PIPELINE_SEND_ERROR(LEVEL.ERROR, COMMONS_CATEGORY.PIPELINE, "Outbound pipeline {} failed to send batch of {}"),
+  PIPELINE_DROPPED(LEVEL.WARN, COMMONS_CATEGORY.PIPELINE, "Outbound pipeline {} is full, dropped oldest message"),
+  PIPELINE_REJECTED(LEVEL.WARN, COMMONS_CATEGORY.PIPELINE, "Outbound pipeline {} is full, message rejected"),
+  PIPELINE_BLOCKED(LEVEL.WARN, COMMONS_CATEGORY.PIPELINE, "Outbound pipeline {} has been full for {}ms"),
+  SHUTDOWN_TIMEOUT(LEVEL.WARN, COMMONS_CATEGORY.SHUTDOWN, "{} shutdown deadline passed waiting for {}"),
+  SHUTDOWN_STEP_FAILED(LEVEL.WARN, COMMONS_CATEGORY.SHUTDOWN, "{} shutdown step {} failed"),
+  METRICS_REGISTRATION_FAILED(LEVEL.WARN, COMMONS_CATEGORY.METRICS, "Failed to register {} with JMX"),
+  ;
+
+  private final  String message;
+  private final  LEVEL level;
+  private final Category category;
+  private final  int parameterCount;
+
+  CommonsLogMessages(LEVEL level, Category category, String message) {
+    this.message = message;
+    this.level = level;
+    this.category = category;
+    int location = message.indexOf("{}");
+    int count = 0;
+    while (location != -1) {
+      count++;
+      location = message.indexOf("{}", location + 2);
+    }
+    this.parameterCount = count;
+  }
+
+  @Getter
+  public enum COMMONS_CATEGORY implements Category {
+    PIPELINE("Pipeline"),
+    METRICS("Metrics"),
+    SHUTDOWN("Shutdown");
+
+    private final String description;
+
+    public String getDivision() {
+      return "Inter-Protocol";
+    }
+
+    COMMONS_CATEGORY(String description) {
+      this.description = description;
+    }
+  }
+
+}
@@ -0,0 +1,122 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.commons;
+
+import io.mapsmessaging.api.message.Message;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Shares the remote form of a message between the links it fans out to. It is direct mapped with a fixed number of
+ * slots, set by the maps.extension.conversionCacheSize system property, and holds messages weakly. Values must be
+ * immutable.
+ */
+public class ConversionCache {
+
+  private static final ConversionCache INSTANCE = new ConversionCache(Integer.getInteger("maps.extension.conversionCacheSize", 4096));
+  private static final ConversionCache DISABLED = new ConversionCache(0);
+
+  public static ConversionCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * @return The shared cache, or one that always converts if the endpoint has set conversionCache to false
+   */
+  public static ConversionCache forConfig(ExtensionConfig config) {
+    return config.getBoolean("conversionCache", true) ? INSTANCE : DISABLED;
+  }
+
+  private final AtomicReferenceArray<Slot> slots;
+  private final int mask;
+  private final LongAdder hits;
+  private final LongAdder misses;
+
+  /**
+   * @param size Number of slots, rounded up to a power of two, 0 or less caches nothing
+   */
+  public ConversionCache(int size) {
+    if (size > 0) {
+      int capacity = Integer.highestOneBit(Math.min(size, 1 << 30));
+      if (capacity < size) {
+        capacity <<= 1;
+      }
+      slots = new AtomicReferenceArray<>(capacity);
+      mask = capacity - 1;
+    } else {
+      slots = null;
+      mask = 0;
+    }
+    hits = new LongAdder();
+    misses = new LongAdder();
+  }
+
+  /**
+   * Returns the message's value for the key, converting it if no link has done so yet
+   *
+   * @param message The message being sent
+   * @param key The remote format
+   * @param converter Builds the value, two links converting the same message at once may both call it
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T get(Message message, ConversionKey<T> key, Function<Message, T> converter) {
+    if (slots == null) {
+      return converter.apply(message);
+    }
+    int index = indexOf(message, key);
+    Slot slot = slots.get(index);
+    if (slot != null && slot.get() == message && slot.key.equals(key)) {
+      hits.increment();
+      return (T) slot.value;
+    }
+    misses.increment();
+    T value = converter.apply(message);
+    slots.set(index, new Slot(message, key, value));
+    return value;
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  private int indexOf(Message message, ConversionKey<?> key) {
+    int hash = System.identityHashCode(message) * 31 + key.hashCode();
+    hash *= 0x9E3779B9;
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+
+  private static final class Slot extends WeakReference<Message> {
+    private final ConversionKey<?> key;
+    private final Object value;
+
+    Slot(Message message, ConversionKey<?> key, Object value) {
+      super(message);
+      this.key = key;
+      this.value = value;
+    }
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.commons;
+
+import lombok.Getter;
+
+/**
+ * A payload as it is sent to the remote broker. The data is shared between the links a message fans out to and must
+ * not be modified.
+ */
+@Getter
+public class EncodedPayload {
+
+  private final byte[] data;
+
+  /** The codec that encoded the data, or null if it is the original payload */
+  private final PayloadCodec codec;
+
+  public EncodedPayload(byte[] data, PayloadCodec codec) {
+    this.data = data;
+    this.codec = codec;
+  }
+
+  /**
+   * @return The value for the codec property, or null if the payload is not encoded
+   */
+  public String getCodecName() {
+    return codec != null ? codec.getName() : null;
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.commons;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Typed view over the free-form extension configuration map. Values loaded from YAML may arrive as
+ * strings or as any numeric type, so every getter accepts both and falls back to the supplied default.
+ */
+public class ExtensionConfig {
+
+  private final Map<String, Object> config;
+
+  public ExtensionConfig(Map<String, Object> config) {
+    this.config = config != null ? config : Collections.emptyMap();
+  }
+
+  public String getString(String key, String defaultValue) {
+    Object val = config.get(key);
+    return val != null ? val.toString() : defaultValue;
+  }
+
+  public int getInt(String key, int defaultValue) {
+    return (int) getLong(key, defaultValue);
+  }
+
+  public long getLong(String key, long defaultValue) {
+    Object val = config.get(key);
+    if (val instanceof Number) {
+      return ((Number) val).longValue();
+    }
+    if (val != null) {
+      try {
+        return Long.parseLong(val.toString().trim());
+      } catch (NumberFormatException ignored) {
+        // fall through to the default
+      }
+    }
+    return defaultValue;
+  }
+
+  @SuppressWarnings("unchecked")
+  public Map<String, Object> getMap(String key) {
+    Object val = config.get(key);
+    return val instanceof Map ? (Map<String, Object>) val : Collections.emptyMap();
+  }
+
+  public boolean getBoolean(String key, boolean defaultValue) {
+    Object val = config.get(key);
+    if (val instanceof Boolean) {
+      return (Boolean) val;
+    }
+    return val != null ? Boolean.parseBoolean(val.toString().trim()) : defaultValue;
+  }
+}
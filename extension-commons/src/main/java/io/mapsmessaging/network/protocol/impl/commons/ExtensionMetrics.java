@@ -0,0 +1,200 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.commons;
+
+import io.mapsmessaging.logging.Logger;
+import io.mapsmessaging.logging.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Metrics for one extension endpoint, its {@link LinkMetrics} and gauges, registered as MXBeans unless jmxEnabled is
+ * false. A name already used by another open endpoint gets a #2, #3... suffix.
+ */
+public class ExtensionMetrics implements ExtensionMetricsMXBean, Closeable {
+
+  private static final String DOMAIN = "io.mapsmessaging";
+  private static final Set<String> NAMES_IN_USE = ConcurrentHashMap.newKeySet();
+
+  private final Logger logger;
+  private final String name;
+  private final boolean jmxEnabled;
+  private final Map<String, LinkMetrics> links;
+  private final Map<String, LongSupplier> gauges;
+  private final List<ObjectName> registered;
+  private boolean closed;
+
+  public ExtensionMetrics(String name, ExtensionConfig config) {
+    this.logger = LoggerFactory.getLogger(ExtensionMetrics.class);
+    this.name = claim(name);
+    this.jmxEnabled = config.getBoolean("jmxEnabled", true);
+    this.links = new ConcurrentHashMap<>();
+    this.gauges = new ConcurrentHashMap<>();
+    this.registered = new ArrayList<>();
+    register(objectName(null), this);
+  }
+
+  /**
+   * @return the metrics for the destination, created and registered on first use
+   */
+  public LinkMetrics link(String destination) {
+    LinkMetrics link = links.get(destination);
+    if (link == null) {
+      link = links.computeIfAbsent(destination, this::createLink);
+    }
+    return link;
+  }
+
+  public void registerGauge(String gaugeName, LongSupplier supplier) {
+    gauges.put(gaugeName, supplier);
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public long getMessagesSent() {
+    long total = 0;
+    for (LinkMetrics link : links.values()) {
+      total += link.getMessagesSent();
+    }
+    return total;
+  }
+
+  @Override
+  public long getBytesSent() {
+    long total = 0;
+    for (LinkMetrics link : links.values()) {
+      total += link.getBytesSent();
+    }
+    return total;
+  }
+
+  @Override
+  public long getMessagesReceived() {
+    long total = 0;
+    for (LinkMetrics link : links.values()) {
+      total += link.getMessagesReceived();
+    }
+    return total;
+  }
+
+  @Override
+  public long getBytesReceived() {
+    long total = 0;
+    for (LinkMetrics link : links.values()) {
+      total += link.getBytesReceived();
+    }
+    return total;
+  }
+
+  @Override
+  public long getErrors() {
+    long total = 0;
+    for (LinkMetrics link : links.values()) {
+      for (Long count : link.getErrors().values()) {
+        total += count;
+      }
+    }
+    return total;
+  }
+
+  @Override
+  public Map<String, Long> getGauges() {
+    Map<String, Long> result = new TreeMap<>();
+    for (Map.Entry<String, LongSupplier> entry : gauges.entrySet()) {
+      result.put(entry.getKey(), entry.getValue().getAsLong());
+    }
+    return result;
+  }
+
+  @Override
+  public void close() {
+    synchronized (registered) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      NAMES_IN_USE.remove(name);
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      for (ObjectName objectName : registered) {
+        try {
+          server.unregisterMBean(objectName);
+        } catch (JMException e) {
+          // Already gone, nothing further to do
+        }
+      }
+      registered.clear();
+    }
+  }
+
+  private static String claim(String name) {
+    String candidate = name;
+    for (int i = 2; !NAMES_IN_USE.add(candidate); i++) {
+      candidate = name + "#" + i;
+    }
+    return candidate;
+  }
+
+  private LinkMetrics createLink(String destination) {
+    LinkMetrics link = new LinkMetrics(destination);
+    register(objectName(destination), link);
+    return link;
+  }
+
+  private ObjectName objectName(String destination) {
+    StringBuilder sb = new StringBuilder(DOMAIN).append(":type=Extension,name=").append(ObjectName.quote(name));
+    if (destination != null) {
+      sb.append(",link=").append(ObjectName.quote(destination));
+    }
+    try {
+      return new ObjectName(sb.toString());
+    } catch (JMException e) {
+      return null;
+    }
+  }
+
+  private void register(ObjectName objectName, Object bean) {
+    if (!jmxEnabled || objectName == null) {
+      return;
+    }
+    try {
+      ManagementFactory.getPlatformMBeanServer().registerMBean(bean, objectName);
+      synchronized (registered) {
+        registered.add(objectName);
+      }
+    } catch (JMException e) {
+      logger.log(CommonsLogMessages.METRICS_REGISTRATION_FAILED, objectName, e);
+    }
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.commons;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Log linear latency histogram, accurate to 1.6%, that records without allocating. Values above
+ * {@link #MAX_TRACKABLE_NANOS} are recorded as that value.
+ */
+public class LatencyHistogram {
+
+  public static final long MAX_TRACKABLE_NANOS = TimeUnit.HOURS.toNanos(1);
+
+  private static final int SUB_BUCKET_BITS = 7;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT >> 1;
+
+  private final AtomicLongArray counts;
+  private final LongAccumulator max;
+
+  public LatencyHistogram() {
+    counts = new AtomicLongArray(indexOf(MAX_TRACKABLE_NANOS) + 1);
+    max = new LongAccumulator(Math::max, 0);
+  }
+
+  public void record(long nanos) {
+    long value = Math.min(Math.max(0, nanos), MAX_TRACKABLE_NANOS);
+    counts.incrementAndGet(indexOf(value));
+    max.accumulate(value);
+  }
+
+  public long getCount() {
+    long total = 0;
+    for (int x = 0; x < counts.length(); x++) {
+      total += counts.get(x);
+    }
+    return total;
+  }
+
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * @param percentile 0 to 100
+   * @return the highest value equivalent to the bucket the percentile falls in, or 0 if nothing has been recorded
+   */
+  public long getValueAtPercentile(double percentile) {
+    long[] snapshot = new long[counts.length()];
+    long total = 0;
+    for (int x = 0; x < snapshot.length; x++) {
+      snapshot[x] = counts.get(x);
+      total += snapshot[x];
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long target = Math.max(1, (long) Math.ceil(Math.min(100.0, Math.max(0.0, percentile)) / 100.0 * total));
+    long seen = 0;
+    for (int x = 0; x < snapshot.length; x++) {
+      seen += snapshot[x];
+      if (seen >= target) {
+        return Math.min(highestEquivalentValue(x), getMax());
+      }
+    }
+    return getMax();
+  }
+
+  public LatencySnapshot snapshot() {
+    return new LatencySnapshot(
+        getCount(),
+        toMicros(getValueAtPercentile(50.0)),
+        toMicros(getValueAtPercentile(99.0)),
+        toMicros(getValueAtPercentile(99.9)),
+        toMicros(getMax())
+    );
+  }
+
+  private static long toMicros(long nanos) {
+    return TimeUnit.NANOSECONDS.toMicros(nanos);
+  }
+
+  static int indexOf(long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      return (int) value;
+    }
+    int shift = (63 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+    int subBucket = (int) (value >>> shift);
+    return SUB_BUCKET_COUNT + ((shift - 1) * SUB_BUCKET_HALF) + (subBucket - SUB_BUCKET_HALF);
+  }
+
+  static long highestEquivalentValue(int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+    int offset = index - SUB_BUCKET_COUNT;
+    int shift = (offset / SUB_BUCKET_HALF) + 1;
+    long subBucket = (offset % SUB_BUCKET_HALF) + SUB_BUCKET_HALF;
+    return ((subBucket + 1) << shift) - 1;
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.commons;
+
+import lombok.Getter;
+
+import javax.management.ConstructorParameters;
+
+/**
+ * Point in time view of a {@link LatencyHistogram}, the latencies are in microseconds
+ */
+@Getter
+public class LatencySnapshot {
+
+  private final long count;
+  private final long p50;
+  private final long p99;
+  private final long p999;
+  private final long max;
+
+  @ConstructorParameters({"count", "p50", "p99", "p999", "max"})
+  public LatencySnapshot(long count, long p50, long p99, long p999, long max) {
+    this.count = count;
+    this.p50 = p50;
+    this.p99 = p99;
+    this.p999 = p999;
+    this.max = max;
+  }
+}
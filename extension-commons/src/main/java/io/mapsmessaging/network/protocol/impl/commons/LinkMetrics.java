@@ -0,0 +1,144 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.commons;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms for one remote destination of an extension endpoint
+ */
+public class LinkMetrics implements LinkMetricsMXBean {
+
+  private final String destination;
+  private final LongAdder messagesSent;
+  private final LongAdder bytesSent;
+  private final LongAdder messagesReceived;
+  private final LongAdder bytesReceived;
+  private final LatencyHistogram sendLatency;
+  private final LatencyHistogram receiveLatency;
+  private final Map<String, LongAdder> errors;
+
+  public LinkMetrics(String destination) {
+    this.destination = destination;
+    messagesSent = new LongAdder();
+    bytesSent = new LongAdder();
+    messagesReceived = new LongAdder();
+    bytesReceived = new LongAdder();
+    sendLatency = new LatencyHistogram();
+    receiveLatency = new LatencyHistogram();
+    errors = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * @param bytes Size of the message payload
+   * @param startNanos System.nanoTime() when the message was submitted
+   */
+  public void sent(int bytes, long startNanos) {
+    messagesSent.increment();
+    bytesSent.add(bytes);
+    sendLatency.record(System.nanoTime() - startNanos);
+  }
+
+  /**
+   * @param bytes Size of the message payload
+   * @param startNanos System.nanoTime() when the message was read from the remote server
+   */
+  public void received(int bytes, long startNanos) {
+    messagesReceived.increment();
+    bytesReceived.add(bytes);
+    receiveLatency.record(System.nanoTime() - startNanos);
+  }
+
+  /**
+   * @param cause A short, stable, name for the failure, such as an error code, never the message text
+   */
+  public void error(String cause) {
+    errors.computeIfAbsent(cause, k -> new LongAdder()).increment();
+  }
+
+  public void error(Throwable error) {
+    error(causeOf(error));
+  }
+
+  @Override
+  public String getDestination() {
+    return destination;
+  }
+
+  @Override
+  public long getMessagesSent() {
+    return messagesSent.sum();
+  }
+
+  @Override
+  public long getBytesSent() {
+    return bytesSent.sum();
+  }
+
+  @Override
+  public long getMessagesReceived() {
+    return messagesReceived.sum();
+  }
+
+  @Override
+  public long getBytesReceived() {
+    return bytesReceived.sum();
+  }
+
+  @Override
+  public LatencySnapshot getSendLatency() {
+    return sendLatency.snapshot();
+  }
+
+  @Override
+  public LatencySnapshot getReceiveLatency() {
+    return receiveLatency.snapshot();
+  }
+
+  @Override
+  public Map<String, Long> getErrors() {
+    Map<String, Long> result = new TreeMap<>();
+    for (Map.Entry<String, LongAdder> entry : errors.entrySet()) {
+      result.put(entry.getKey(), entry.getValue().sum());
+    }
+    return result;
+  }
+
+  public LatencyHistogram getSendHistogram() {
+    return sendLatency;
+  }
+
+  public LatencyHistogram getReceiveHistogram() {
+    return receiveLatency;
+  }
+
+  static String causeOf(Throwable error) {
+    Throwable cause = error;
+    while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    return cause == null ? "unknown" : cause.getClass().getSimpleName();
+  }
+}
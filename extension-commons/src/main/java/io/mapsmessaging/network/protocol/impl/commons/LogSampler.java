@@ -0,0 +1,50 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.commons;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logs the first and then one in every logSampleRate occurrences of a per message log entry
+ */
+public class LogSampler {
+
+  private final long rate;
+  private final AtomicLong count;
+
+  public LogSampler(ExtensionConfig config) {
+    this(config.getLong("logSampleRate", 1000));
+  }
+
+  public LogSampler(long rate) {
+    this.rate = Math.max(0, rate);
+    this.count = new AtomicLong();
+  }
+
+  public boolean sample() {
+    if (rate == 0) {
+      return false;
+    }
+    if (rate == 1) {
+      return true;
+    }
+    return count.getAndIncrement() % rate == 0;
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.commons;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * LZ4 block compression, the fastest of the codecs with the lowest ratio. The block is prefixed with the payload's
+ * length as a 4 byte big endian int, since an LZ4 block does not record it. Decoding uses the pure Java safe
+ * decompressor, the input comes from a remote system and is bounds checked rather than trusted.
+ */
+public class Lz4Codec implements PayloadCodec {
+
+  public static final String NAME = "lz4";
+
+  private final LZ4Compressor compressor;
+  private final LZ4SafeDecompressor decompressor;
+
+  public Lz4Codec() {
+    compressor = LZ4Factory.fastestInstance().fastCompressor();
+    decompressor = LZ4Factory.safeInstance().safeDecompressor();
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public byte[] encode(byte[] payload) {
+    byte[] encoded = new byte[4 + compressor.maxCompressedLength(payload.length)];
+    writeInt(encoded, payload.length);
+    int length = compressor.compress(payload, 0, payload.length, encoded, 4, encoded.length - 4);
+    return Arrays.copyOf(encoded, 4 + length);
+  }
+
+  @Override
+  public byte[] decode(byte[] payload, int maxSize) throws IOException {
+    if (payload.length < 4) {
+      throw new IOException("LZ4 payload is truncated");
+    }
+    int size = readInt(payload);
+    if (size < 0 || size > maxSize) {
+      throw new IOException("LZ4 payload decodes to " + size + " bytes, the limit is " + maxSize);
+    }
+    byte[] decoded = new byte[size];
+    try {
+      int length = decompressor.decompress(payload, 4, payload.length - 4, decoded, 0);
+      if (length != size) {
+        throw new IOException("LZ4 payload decoded to " + length + " bytes, expected " + size);
+      }
+    } catch (LZ4Exception e) {
+      throw new IOException("Corrupt LZ4 payload", e);
+    }
+    return decoded;
+  }
+
+  private static void writeInt(byte[] buffer, int value) {
+    buffer[0] = (byte) (value >>> 24);
+    buffer[1] = (byte) (value >>> 16);
+    buffer[2] = (byte) (value >>> 8);
+    buffer[3] = (byte) value;
+  }
+
+  private static int readInt(byte[] buffer) {
+    return ((buffer[0] & 0xff) << 24) | ((buffer[1] & 0xff) << 16) | ((buffer[2] & 0xff) << 8) | (buffer[3] & 0xff);
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.commons;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Heap backed spill store with its own limit
+ *
+ * @param <T> Element type
+ */
+public class MemorySpillStore<T> implements SpillStore<T> {
+
+  private final ConcurrentLinkedQueue<T> queue;
+  private final AtomicLong size;
+  private final long limit;
+
+  public MemorySpillStore(long limit) {
+    this.queue = new ConcurrentLinkedQueue<>();
+    this.size = new AtomicLong();
+    this.limit = limit;
+  }
+
+  @Override
+  public boolean store(T item) {
+    if (size.incrementAndGet() > limit) {
+      size.decrementAndGet();
+      return false;
+    }
+    queue.add(item);
+    return true;
+  }
+
+  @Override
+  public T recover() {
+    T item = queue.poll();
+    if (item != null) {
+      size.decrementAndGet();
+    }
+    return item;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return queue.isEmpty();
+  }
+
+  @Override
+  public long size() {
+    return size.get();
+  }
+}
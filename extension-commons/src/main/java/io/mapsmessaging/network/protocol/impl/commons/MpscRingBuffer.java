@@ -0,0 +1,132 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.commons;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free ring buffer for many producers and a single drain worker
+ *
+ * @param <T> Element type
+ */
+public class MpscRingBuffer<T> {
+
+  private final int mask;
+  private final AtomicReferenceArray<T> buffer;
+  private final AtomicLongArray sequences;
+  private final AtomicLong head;
+  private final AtomicLong tail;
+
+  /**
+   * @param requestedCapacity Minimum capacity, rounded up to the next power of two
+   */
+  public MpscRingBuffer(int requestedCapacity) {
+    int capacity = 1;
+    while (capacity < requestedCapacity) {
+      capacity <<= 1;
+    }
+    mask = capacity - 1;
+    buffer = new AtomicReferenceArray<>(capacity);
+    sequences = new AtomicLongArray(capacity);
+    for (int x = 0; x < capacity; x++) {
+      sequences.set(x, x);
+    }
+    head = new AtomicLong();
+    tail = new AtomicLong();
+  }
+
+  public int capacity() {
+    return mask + 1;
+  }
+
+  public int size() {
+    long size = tail.get() - head.get();
+    return (int) Math.max(0, Math.min(size, capacity()));
+  }
+
+  public boolean isEmpty() {
+    return tail.get() == head.get();
+  }
+
+  /**
+   * @return false if the buffer is full
+   */
+  public boolean offer(T item) {
+    long pos = tail.get();
+    while (true) {
+      int index = (int) (pos & mask);
+      long diff = sequences.get(index) - pos;
+      if (diff == 0) {
+        if (tail.compareAndSet(pos, pos + 1)) {
+          buffer.lazySet(index, item);
+          sequences.set(index, pos + 1);
+          return true;
+        }
+        pos = tail.get();
+      } else if (diff < 0) {
+        return false;
+      } else {
+        pos = tail.get();
+      }
+    }
+  }
+
+  /**
+   * @return the oldest item or null if the buffer is empty
+   */
+  public T poll() {
+    long pos = head.get();
+    while (true) {
+      int index = (int) (pos & mask);
+      long diff = sequences.get(index) - (pos + 1);
+      if (diff == 0) {
+        if (head.compareAndSet(pos, pos + 1)) {
+          T item = buffer.get(index);
+          buffer.lazySet(index, null);
+          sequences.set(index, pos + mask + 1);
+          return item;
+        }
+        pos = head.get();
+      } else if (diff < 0) {
+        return null;
+      } else {
+        pos = head.get();
+      }
+    }
+  }
+
+  /**
+   * Moves up to max items into the list
+   *
+   * @return the number of items moved
+   */
+  public int drainTo(List<T> list, int max) {
+    int count = 0;
+    T item;
+    while (count < max && (item = poll()) != null) {
+      list.add(item);
+      count++;
+    }
+    return count;
+  }
+}
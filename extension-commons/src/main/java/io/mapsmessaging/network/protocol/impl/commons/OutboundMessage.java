@@ -0,0 +1,41 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.commons;
+
+import io.mapsmessaging.api.message.Message;
+import lombok.Getter;
+
+/**
+ * A message queued in an {@link OutboundPipeline} along with the remote destination it is for and the
+ * System.nanoTime() it was submitted at, the start of its send latency
+ */
+@Getter
+public class OutboundMessage {
+
+  private final String destination;
+  private final Message message;
+  private final long submitted;
+
+  public OutboundMessage(String destination, Message message) {
+    this.destination = destination;
+    this.message = message;
+    this.submitted = System.nanoTime();
+  }
+}
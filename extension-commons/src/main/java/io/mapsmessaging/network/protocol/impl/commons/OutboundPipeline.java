@@ -0,0 +1,238 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.commons;
+
+import io.mapsmessaging.logging.Logger;
+import io.mapsmessaging.logging.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Queues outbound messages on a bounded ring buffer and hands them in batches to the extension's {@link BatchSender}
+ * on a worker thread, so a slow remote server does not stall local delivery.
+ *
+ * @param <T> Element type
+ */
+public class OutboundPipeline<T> implements Closeable {
+
+  private static final long MAX_IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+  private static final long MAX_BLOCK_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final Logger logger;
+  private final String name;
+  private final MpscRingBuffer<T> buffer;
+  private final BatchSender<T> sender;
+  private final BackpressurePolicy policy;
+  private final SpillStore<T> spillStore;
+  private final int batchSize;
+  private final long blockWarningNanos;
+  private final long shutdownTimeoutMs;
+  private final AtomicLong dropped;
+  private final Thread worker;
+
+  private volatile boolean accepting;
+  private volatile boolean running;
+  private volatile boolean sleeping;
+
+  public OutboundPipeline(String name, ExtensionConfig config, BatchSender<T> sender) {
+    this(name, config, sender, new MemorySpillStore<>(config.getLong("spillLimit", 1_000_000)));
+  }
+
+  public OutboundPipeline(String name, ExtensionConfig config, BatchSender<T> sender, SpillStore<T> spillStore) {
+    this.logger = LoggerFactory.getLogger(OutboundPipeline.class);
+    this.name = name;
+    this.sender = sender;
+    this.buffer = new MpscRingBuffer<>(Math.max(2, config.getInt("outboundQueueSize", 8192)));
+    this.batchSize = Math.max(1, config.getInt("outboundBatchSize", 64));
+    this.policy = BackpressurePolicy.parse(config.getString("backpressure", "block"));
+    this.spillStore = policy == BackpressurePolicy.SPILL ? spillStore : null;
+    this.blockWarningNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, config.getLong("blockWarningMs", 30_000)));
+    this.shutdownTimeoutMs = Math.max(0, config.getLong("shutdownTimeoutMs", 30_000));
+    this.dropped = new AtomicLong();
+    this.worker = WorkerThreads.create("OutboundPipeline-" + name, this::drainLoop, config.getBoolean("virtualThreads", true));
+    this.accepting = true;
+    this.running = true;
+    worker.start();
+    logger.log(CommonsLogMessages.PIPELINE_STARTED, name, buffer.capacity(), policy);
+  }
+
+  /**
+   * Queues the item for the drain worker
+   *
+   * @return false if the item was not accepted, because the pipeline is closed or the overflow is also full
+   */
+  public boolean submit(T item) {
+    if (!accepting) {
+      return false;
+    }
+    boolean queued;
+    switch (policy) {
+      case DROP_OLDEST:
+        queued = offerDroppingOldest(item);
+        break;
+
+      case SPILL:
+        queued = offerOrSpill(item);
+        break;
+
+      case BLOCK:
+      default:
+        queued = offerBlocking(item);
+        break;
+    }
+    if (queued && sleeping) {
+      LockSupport.unpark(worker);
+    }
+    return queued;
+  }
+
+  public int getQueueSize() {
+    return buffer.size() + (spillStore != null ? (int) Math.min(Integer.MAX_VALUE, spillStore.size()) : 0);
+  }
+
+  public long getDropped() {
+    return dropped.get();
+  }
+
+  @Override
+  public void close() {
+    close(shutdownTimeoutMs);
+  }
+
+  /**
+   * Stops accepting new items and lets the worker send what is queued, for no longer than the time left before the
+   * deadline
+   */
+  public void close(ShutdownDeadline deadline) {
+    close(Math.max(1, deadline.remainingMs()));
+  }
+
+  /**
+   * Stops accepting new items and lets the worker send what is queued
+   *
+   * @param timeoutMs How long to wait for the queue to drain, 0 waits for the worker without a limit
+   */
+  public void close(long timeoutMs) {
+    accepting = false;
+    running = false;
+    LockSupport.unpark(worker);
+    try {
+      worker.join(timeoutMs);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (worker.isAlive()) {
+      worker.interrupt();
+    }
+    logger.log(CommonsLogMessages.PIPELINE_STOPPED, name, getQueueSize());
+  }
+
+  private boolean offerBlocking(T item) {
+    if (buffer.offer(item)) {
+      return true;
+    }
+    long park = 1_000;
+    long start = System.nanoTime();
+    long nextWarning = start + blockWarningNanos;
+    while (!buffer.offer(item)) {
+      if (!accepting || Thread.currentThread().isInterrupted()) {
+        return false;
+      }
+      LockSupport.parkNanos(park);
+      park = Math.min(park << 1, MAX_BLOCK_PARK_NANOS);
+      long now = System.nanoTime();
+      if (now > nextWarning) {
+        logger.log(CommonsLogMessages.PIPELINE_BLOCKED, name, TimeUnit.NANOSECONDS.toMillis(now - start));
+        nextWarning = now + blockWarningNanos;
+      }
+    }
+    return true;
+  }
+
+  private boolean offerDroppingOldest(T item) {
+    while (!buffer.offer(item)) {
+      if (buffer.poll() != null && dropped.incrementAndGet() % 1000 == 1) {
+        logger.log(CommonsLogMessages.PIPELINE_DROPPED, name);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Once anything has been spilled new items follow it into the spill store, so they are not sent ahead of it
+   */
+  private boolean offerOrSpill(T item) {
+    if ((spillStore.isEmpty() && buffer.offer(item)) || spillStore.store(item)) {
+      return true;
+    }
+    dropped.incrementAndGet();
+    logger.log(CommonsLogMessages.PIPELINE_REJECTED, name);
+    return false;
+  }
+
+  private void drainLoop() {
+    List<T> batch = new ArrayList<>(batchSize);
+    long idle = 1_000;
+    while (running || !isDrained()) {
+      buffer.drainTo(batch, batchSize);
+      if (spillStore != null) {
+        T item;
+        while (batch.size() < batchSize && (item = spillStore.recover()) != null) {
+          batch.add(item);
+        }
+      }
+      if (batch.isEmpty()) {
+        if (Thread.currentThread().isInterrupted()) {
+          return;
+        }
+        idle(idle);
+        idle = Math.min(idle << 1, MAX_IDLE_NANOS);
+        continue;
+      }
+      idle = 1_000;
+      try {
+        sender.send(batch);
+      } catch (Throwable th) {
+        logger.log(CommonsLogMessages.PIPELINE_SEND_ERROR, name, batch.size(), th);
+      }
+      batch.clear();
+      if (Thread.currentThread().isInterrupted()) {
+        return;
+      }
+    }
+  }
+
+  private void idle(long nanos) {
+    sleeping = true;
+    if (buffer.isEmpty() && running) {
+      LockSupport.parkNanos(this, nanos);
+    }
+    sleeping = false;
+  }
+
+  private boolean isDrained() {
+    return buffer.isEmpty() && (spillStore == null || spillStore.isEmpty());
+  }
+}
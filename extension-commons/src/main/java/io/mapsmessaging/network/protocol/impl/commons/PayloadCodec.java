@@ -0,0 +1,50 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.commons;
+
+import java.io.IOException;
+
+/**
+ * Compresses payloads on their way to a remote broker and restores them on receipt. The codec's name travels with
+ * each encoded message, see {@link PayloadCodecs}.
+ */
+public interface PayloadCodec {
+
+  /**
+   * @return The name sent with each encoded message, the receiving side looks the codec up by it
+   */
+  String getName();
+
+  /**
+   * @return Identifies the codec's output, as the name unless it also depends on state such as a level or a dictionary
+   */
+  default String getId() {
+    return getName();
+  }
+
+  byte[] encode(byte[] payload);
+
+  /**
+   * @param payload Encoded bytes as received from the remote broker, they are not trusted
+   * @param maxSize The largest decoded payload accepted
+   * @throws IOException if the payload is corrupt or decodes to more than maxSize bytes
+   */
+  byte[] decode(byte[] payload, int maxSize) throws IOException;
+}
@@ -0,0 +1,152 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.commons;
+
+import io.mapsmessaging.api.message.Message;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The payload codecs of an endpoint. Each link's payload is encoded with its configured codec, named in the
+ * {@link #CODEC_PROPERTY} property, and a message carrying that property is decoded on receipt.
+ */
+public class PayloadCodecs {
+
+  public static final String CODEC_PROPERTY = "maps.codec";
+  public static final String NONE = "none";
+
+  private final ExtensionConfig config;
+  private final int minSize;
+  private final int maxDecodedSize;
+  private final PayloadCodec defaultCodec;
+  private final Map<String, PayloadCodec> linkCodecs;
+  private final Map<String, PayloadCodec> codecs;
+  private final Map<String, ConversionKey<EncodedPayload>> keys;
+  private final ConversionCache conversionCache;
+
+  /**
+   * @throws IllegalArgumentException if a codec name is unknown or the dictionary can not be read
+   */
+  public PayloadCodecs(ExtensionConfig config) {
+    this.config = config;
+    this.minSize = Math.max(0, config.getInt("codecMinSize", 64));
+    this.maxDecodedSize = (int) Math.max(0, Math.min(Integer.MAX_VALUE - 8, config.getLong("codecMaxDecodedSize", 64L * 1024 * 1024)));
+    this.codecs = new ConcurrentHashMap<>();
+    this.keys = new ConcurrentHashMap<>();
+    this.conversionCache = ConversionCache.forConfig(config);
+    this.defaultCodec = lookup(config.getString("codec", NONE));
+    Map<String, PayloadCodec> perLink = new HashMap<>();
+    for (Map.Entry<String, Object> entry : config.getMap("linkCodecs").entrySet()) {
+      perLink.put(entry.getKey(), lookup(String.valueOf(entry.getValue())));
+    }
+    this.linkCodecs = perLink;
+  }
+
+  /**
+   * @return The codec for the remote destination, or null if its payloads are sent as they are
+   */
+  public PayloadCodec forLink(String destination) {
+    if (linkCodecs.containsKey(destination)) {
+      return linkCodecs.get(destination);
+    }
+    return defaultCodec;
+  }
+
+  /**
+   * @return The message's payload encoded for the remote destination
+   */
+  public EncodedPayload encode(Message message, String destination) {
+    PayloadCodec codec = forLink(destination);
+    byte[] payload = message.getOpaqueData();
+    if (codec == null || payload == null || payload.length < minSize) {
+      return new EncodedPayload(payload, null);
+    }
+    ConversionKey<EncodedPayload> key = keys.computeIfAbsent(codec.getId(), id -> new ConversionKey<>("codec:" + id + ":" + minSize));
+    return conversionCache.get(message, key, m -> encode(codec, payload));
+  }
+
+  /**
+   * @param codecName The value of the {@link #CODEC_PROPERTY} property
+   * @param payload The received payload
+   * @throws IOException if the codec is unknown, not configured here or the payload does not decode
+   */
+  public byte[] decode(String codecName, byte[] payload) throws IOException {
+    PayloadCodec codec;
+    try {
+      codec = lookup(codecName);
+    } catch (IllegalArgumentException | UncheckedIOException e) {
+      throw new IOException("Unable to decode " + codecName + " payload", e);
+    }
+    if (codec == null) {
+      return payload;
+    }
+    return codec.decode(payload, maxDecodedSize);
+  }
+
+  private static EncodedPayload encode(PayloadCodec codec, byte[] payload) {
+    byte[] encoded = codec.encode(payload);
+    if (encoded.length >= payload.length) {
+      return new EncodedPayload(payload, null);
+    }
+    return new EncodedPayload(encoded, codec);
+  }
+
+  /**
+   * Codecs are only created once named, so the compression libraries are only needed on the classpath when used
+   */
+  private PayloadCodec lookup(String name) {
+    String codecName = name.trim().toLowerCase(Locale.ROOT);
+    if (codecName.isEmpty() || codecName.equals(NONE)) {
+      return null;
+    }
+    return codecs.computeIfAbsent(codecName, this::create);
+  }
+
+  private PayloadCodec create(String name) {
+    switch (name) {
+      case Lz4Codec.NAME:
+        return new Lz4Codec();
+
+      case ZstdCodec.NAME:
+        return new ZstdCodec(config.getInt("codecLevel", 3));
+
+      case ZstdDictionaryCodec.NAME:
+        String path = config.getString("codecDictionary", null);
+        if (path == null) {
+          throw new IllegalArgumentException("The zstd-dict codec needs codecDictionary to be set");
+        }
+        try {
+          return new ZstdDictionaryCodec(Files.readAllBytes(Paths.get(path)), config.getInt("codecLevel", 3));
+        } catch (IOException e) {
+          throw new UncheckedIOException("Unable to read codecDictionary " + path, e);
+        }
+
+      default:
+        throw new IllegalArgumentException("Unknown codec " + name);
+    }
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.commons;
+
+import io.mapsmessaging.logging.Logger;
+import io.mapsmessaging.logging.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A single deadline shared by all the steps of an extension's shutdown, steps that run out of time are logged and
+ * abandoned
+ */
+public class ShutdownDeadline {
+
+  private final Logger logger;
+  private final String name;
+  private final long deadlineNanos;
+
+  public ShutdownDeadline(String name, long timeoutMs) {
+    this.logger = LoggerFactory.getLogger(ShutdownDeadline.class);
+    this.name = name;
+    this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, timeoutMs));
+  }
+
+  public long remainingMs() {
+    return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+  }
+
+  public boolean isExpired() {
+    return deadlineNanos - System.nanoTime() <= 0;
+  }
+
+  /**
+   * Waits for the future until the deadline
+   *
+   * @param step Description of what is being waited for, used if it times out
+   * @return true if the future completed, normally or not, in time
+   */
+  public boolean await(String step, CompletableFuture<?> future) {
+    try {
+      future.get(remainingMs(), TimeUnit.MILLISECONDS);
+      return true;
+    } catch (CancellationException e) {
+      return true;
+    } catch (ExecutionException e) {
+      logger.log(CommonsLogMessages.SHUTDOWN_STEP_FAILED, name, step, e.getCause());
+      return true;
+    } catch (TimeoutException e) {
+      logger.log(CommonsLogMessages.SHUTDOWN_TIMEOUT, name, step);
+      return false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  public boolean awaitAll(String step, Collection<? extends CompletableFuture<?>> futures) {
+    return await(step, CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])));
+  }
+
+  /**
+   * Runs the actions in parallel, each on a thread of its own, and waits for them until the deadline. Actions still
+   * running after that are left to finish in the background.
+   */
+  public boolean closeAll(String step, List<CloseAction> actions) {
+    List<CompletableFuture<Void>> futures = new ArrayList<>(actions.size());
+    for (CloseAction action : actions) {
+      CompletableFuture<Void> future = new CompletableFuture<>();
+      WorkerThreads.create("Shutdown-" + name, () -> {
+        try {
+          action.close();
+          future.complete(null);
+        } catch (Throwable th) {
+          future.completeExceptionally(th);
+        }
+      }, true).start();
+      futures.add(future);
+    }
+    return awaitAll(step, futures);
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.commons;
+
+import java.lang.reflect.Method;
+
+/**
+ * Creates the worker threads used by the extensions. The project compiles against Java 11, so virtual threads are
+ * created reflectively when the runtime supports them, falling back to a daemon platform thread otherwise.
+ */
+public class WorkerThreads {
+
+  private static final Method OF_VIRTUAL;
+  private static final Method BUILDER_NAME;
+  private static final Method BUILDER_UNSTARTED;
+
+  static {
+    Method ofVirtual = null;
+    Method name = null;
+    Method unstarted = null;
+    try {
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      ofVirtual = Thread.class.getMethod("ofVirtual");
+      name = builderClass.getMethod("name", String.class);
+      unstarted = builderClass.getMethod("unstarted", Runnable.class);
+    } catch (ReflectiveOperationException e) {
+      // Pre Java 21 runtime, only platform threads are available
+    }
+    OF_VIRTUAL = ofVirtual;
+    BUILDER_NAME = name;
+    BUILDER_UNSTARTED = unstarted;
+  }
+
+  public static boolean isVirtualThreadSupported() {
+    return OF_VIRTUAL != null;
+  }
+
+  /**
+   * @param name Thread name
+   * @param task The work to run
+   * @param virtual Prefer a virtual thread if the runtime supports them
+   * @return An unstarted thread
+   */
+  public static Thread create(String name, Runnable task, boolean virtual) {
+    if (virtual && OF_VIRTUAL != null) {
+      try {
+        Object builder = OF_VIRTUAL.invoke(null);
+        builder = BUILDER_NAME.invoke(builder, name);
+        return (Thread) BUILDER_UNSTARTED.invoke(builder, task);
+      } catch (ReflectiveOperationException e) {
+        // Fall through to a platform thread
+      }
+    }
+    Thread thread = new Thread(task, name);
+    thread.setDaemon(true);
+    return thread;
+  }
+
+  private WorkerThreads() {
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.commons;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdException;
+
+import java.io.IOException;
+
+/**
+ * Zstandard compression, a better ratio than LZ4 for a little more CPU. Each payload is a complete zstd frame, which
+ * records its decoded size.
+ */
+public class ZstdCodec implements PayloadCodec {
+
+  public static final String NAME = "zstd";
+
+  private final int level;
+
+  public ZstdCodec(int level) {
+    this.level = level;
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public String getId() {
+    return NAME + ":" + level;
+  }
+
+  @Override
+  public byte[] encode(byte[] payload) {
+    return Zstd.compress(payload, level);
+  }
+
+  @Override
+  public byte[] decode(byte[] payload, int maxSize) throws IOException {
+    int size = frameContentSize(payload, maxSize);
+    try {
+      return Zstd.decompress(payload, size);
+    } catch (ZstdException e) {
+      throw new IOException("Corrupt zstd payload", e);
+    }
+  }
+
+  static int frameContentSize(byte[] payload, int maxSize) throws IOException {
+    long size = Zstd.getFrameContentSize(payload);
+    if (size < 0) {
+      throw new IOException("Not a zstd frame with a known size");
+    }
+    if (size > maxSize) {
+      throw new IOException("zstd payload decodes to " + size + " bytes, the limit is " + maxSize);
+    }
+    return (int) size;
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.commons;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import com.github.luben.zstd.ZstdDictTrainer;
+import com.github.luben.zstd.ZstdException;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+
+/**
+ * Zstandard with a dictionary trained on sample payloads, for small messages such as JSON telemetry. Both sides must
+ * load the same dictionary.
+ */
+public class ZstdDictionaryCodec implements PayloadCodec {
+
+  public static final String NAME = "zstd-dict";
+
+  private final ZstdDictCompress compressDictionary;
+  private final ZstdDictDecompress decompressDictionary;
+  private final String id;
+
+  public ZstdDictionaryCodec(byte[] dictionary, int level) {
+    this.compressDictionary = new ZstdDictCompress(dictionary, level);
+    this.decompressDictionary = new ZstdDictDecompress(dictionary);
+    this.id = NAME + ":" + level + ":" + hash(dictionary);
+  }
+
+  /**
+   * @param samples Payloads representative of the traffic
+   * @param dictionarySize Dictionary size in bytes, 16 to 112KB is typical
+   * @return The trained dictionary
+   */
+  public static byte[] train(Collection<byte[]> samples, int dictionarySize) {
+    long total = 0;
+    for (byte[] sample : samples) {
+      total += sample.length;
+    }
+    ZstdDictTrainer trainer = new ZstdDictTrainer((int) Math.min(Integer.MAX_VALUE, total), dictionarySize);
+    for (byte[] sample : samples) {
+      trainer.addSample(sample);
+    }
+    return trainer.trainSamples();
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  /**
+   * Keyed on a hash of the dictionary's content, raw content dictionaries all carry the zstd dictionary id 0
+   */
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  @Override
+  public byte[] encode(byte[] payload) {
+    return Zstd.compress(payload, compressDictionary);
+  }
+
+  @Override
+  public byte[] decode(byte[] payload, int maxSize) throws IOException {
+    int size = ZstdCodec.frameContentSize(payload, maxSize);
+    try {
+      return Zstd.decompress(payload, decompressDictionary, size);
+    } catch (ZstdException e) {
+      throw new IOException("Corrupt zstd payload or dictionary mismatch", e);
+    }
+  }
+
+  private static String hash(byte[] dictionary) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(dictionary);
+      StringBuilder sb = new StringBuilder(16);
+      for (int x = 0; x < 8; x++) {
+        sb.append(Character.forDigit((digest[x] >> 4) & 0xf, 16)).append(Character.forDigit(digest[x] & 0xf, 16));
+      }
+      return sb.toString();
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to provide SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+}
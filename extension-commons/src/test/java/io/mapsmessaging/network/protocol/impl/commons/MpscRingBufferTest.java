@@ -0,0 +1,133 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.commons;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MpscRingBufferTest {
+
+  @Test
+  void capacityIsRoundedUpToAPowerOfTwo() {
+    assertEquals(8, new MpscRingBuffer<Integer>(5).capacity());
+    assertEquals(8, new MpscRingBuffer<Integer>(8).capacity());
+  }
+
+  @Test
+  void offerFailsOnceFull() {
+    MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+    for (int x = 0; x < 4; x++) {
+      assertTrue(buffer.offer(x));
+    }
+    assertFalse(buffer.offer(4));
+    assertEquals(4, buffer.size());
+    assertEquals(0, buffer.poll());
+    assertTrue(buffer.offer(4));
+  }
+
+  @Test
+  void itemsComeOutInOrderAcrossTheWrap() {
+    MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+    int next = 0;
+    for (int x = 0; x < 100; x++) {
+      assertTrue(buffer.offer(x));
+      if (buffer.size() == buffer.capacity()) {
+        assertEquals(next++, buffer.poll());
+        assertEquals(next++, buffer.poll());
+      }
+    }
+    while (!buffer.isEmpty()) {
+      assertEquals(next++, buffer.poll());
+    }
+    assertEquals(100, next);
+    assertNull(buffer.poll());
+  }
+
+  @Test
+  void drainToMovesAtMostMax() {
+    MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(8);
+    for (int x = 0; x < 6; x++) {
+      buffer.offer(x);
+    }
+    List<Integer> list = new ArrayList<>();
+    assertEquals(4, buffer.drainTo(list, 4));
+    assertEquals(List.of(0, 1, 2, 3), list);
+    assertEquals(2, buffer.drainTo(list, 4));
+    assertTrue(buffer.isEmpty());
+  }
+
+  @Test
+  void everyItemFromConcurrentProducersIsDrainedOnce() throws InterruptedException {
+    int producers = 4;
+    int perProducer = 50_000;
+    MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(64);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+    for (int p = 0; p < producers; p++) {
+      int base = p * perProducer;
+      Thread thread = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+        for (int x = 0; x < perProducer; x++) {
+          while (!buffer.offer(base + x)) {
+            Thread.yield();
+          }
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    start.countDown();
+    boolean[] seen = new boolean[producers * perProducer];
+    int[] lastPerProducer = new int[producers];
+    Arrays.fill(lastPerProducer, -1);
+    int received = 0;
+    while (received < seen.length) {
+      Integer item = buffer.poll();
+      if (item == null) {
+        Thread.yield();
+        continue;
+      }
+      assertFalse(seen[item]);
+      seen[item] = true;
+      int producer = item / perProducer;
+      assertTrue(item % perProducer > lastPerProducer[producer]);
+      lastPerProducer[producer] = item % perProducer;
+      received++;
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertTrue(buffer.isEmpty());
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.commons;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutboundPipelineTest {
+
+  @Test
+  void blockWaitsForRoom() throws InterruptedException {
+    GatedSender sender = new GatedSender();
+    OutboundPipeline<Integer> pipeline = new OutboundPipeline<>("block", config("block"), sender);
+    fill(pipeline, sender, 4);
+
+    AtomicBoolean accepted = new AtomicBoolean();
+    Thread producer = new Thread(() -> accepted.set(pipeline.submit(5)));
+    producer.start();
+    producer.join(200);
+    assertTrue(producer.isAlive());
+
+    sender.gate.countDown();
+    producer.join(5_000);
+    assertTrue(accepted.get());
+    pipeline.close(5_000);
+    assertEquals(List.of(0, 1, 2, 3, 4, 5), sender.sent);
+    assertEquals(0, pipeline.getDropped());
+  }
+
+  @Test
+  void dropOldestKeepsTheNewest() throws InterruptedException {
+    GatedSender sender = new GatedSender();
+    OutboundPipeline<Integer> pipeline = new OutboundPipeline<>("drop", config("drop_oldest"), sender);
+    fill(pipeline, sender, 4);
+    for (int x = 5; x <= 10; x++) {
+      assertTrue(pipeline.submit(x));
+    }
+    assertEquals(6, pipeline.getDropped());
+
+    sender.gate.countDown();
+    pipeline.close(5_000);
+    assertEquals(List.of(0, 7, 8, 9, 10), sender.sent);
+  }
+
+  @Test
+  void spillKeepsOrderAndRejectsOnceTheStoreIsFull() throws InterruptedException {
+    GatedSender sender = new GatedSender();
+    OutboundPipeline<Integer> pipeline = new OutboundPipeline<>("spill", config("spill"), sender);
+    fill(pipeline, sender, 4);
+    for (int x = 5; x <= 7; x++) {
+      assertTrue(pipeline.submit(x));
+    }
+    assertFalse(pipeline.submit(8));
+    assertEquals(1, pipeline.getDropped());
+    assertEquals(7, pipeline.getQueueSize());
+
+    sender.gate.countDown();
+    pipeline.close(5_000);
+    assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7), sender.sent);
+  }
+
+  @Test
+  void closedPipelineRejects() {
+    GatedSender sender = new GatedSender();
+    sender.gate.countDown();
+    OutboundPipeline<Integer> pipeline = new OutboundPipeline<>("closed", config("block"), sender);
+    pipeline.close(5_000);
+    assertFalse(pipeline.submit(1));
+  }
+
+  /**
+   * Holds the first item in the sender and fills the ring buffer behind it
+   */
+  private static void fill(OutboundPipeline<Integer> pipeline, GatedSender sender, int capacity) throws InterruptedException {
+    assertTrue(pipeline.submit(0));
+    assertTrue(sender.first.await(5, TimeUnit.SECONDS));
+    for (int x = 1; x <= capacity; x++) {
+      assertTrue(pipeline.submit(x));
+    }
+  }
+
+  private static ExtensionConfig config(String backpressure) {
+    Map<String, Object> map = new HashMap<>();
+    map.put("outboundQueueSize", 4);
+    map.put("outboundBatchSize", 1);
+    map.put("backpressure", backpressure);
+    map.put("spillLimit", 3);
+    map.put("virtualThreads", false);
+    return new ExtensionConfig(map);
+  }
+
+  private static final class GatedSender implements BatchSender<Integer> {
+    private final CountDownLatch first = new CountDownLatch(1);
+    private final CountDownLatch gate = new CountDownLatch(1);
+    private final List<Integer> sent = Collections.synchronizedList(new ArrayList<>());
+
+    @Override
+    public void send(List<Integer> batch) throws InterruptedException {
+      first.countDown();
+      gate.await();
+      sent.addAll(batch);
+    }
+  }
+}
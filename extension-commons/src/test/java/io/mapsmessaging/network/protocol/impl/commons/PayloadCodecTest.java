@@ -0,0 +1,122 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.commons;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PayloadCodecTest {
+
+  private static final int MAX_SIZE = 1024 * 1024;
+
+  @Test
+  void lz4RoundTrips() throws IOException {
+    assertRoundTrips(new Lz4Codec());
+  }
+
+  @Test
+  void zstdRoundTrips() throws IOException {
+    assertRoundTrips(new ZstdCodec(3));
+  }
+
+  @Test
+  void zstdDictionaryRoundTrips() throws IOException {
+    assertRoundTrips(new ZstdDictionaryCodec(dictionary(1), 3));
+  }
+
+  @Test
+  void decodeRejectsPayloadsOverTheLimit() {
+    byte[] payload = record(new Random(1), 4000);
+    for (PayloadCodec codec : codecs()) {
+      byte[] encoded = codec.encode(payload);
+      assertThrows(IOException.class, () -> codec.decode(encoded, payload.length - 1), codec.getName());
+    }
+  }
+
+  @Test
+  void decodeRejectsCorruptPayloads() {
+    for (PayloadCodec codec : codecs()) {
+      byte[] encoded = codec.encode(record(new Random(2), 4000));
+      byte[] truncated = Arrays.copyOf(encoded, encoded.length / 2);
+      assertThrows(IOException.class, () -> codec.decode(truncated, MAX_SIZE), codec.getName());
+      assertThrows(IOException.class, () -> codec.decode(new byte[]{1, 2}, MAX_SIZE), codec.getName());
+    }
+  }
+
+  @Test
+  void idsChangeWithTheEncoderSettings() {
+    assertNotEquals(new ZstdCodec(3).getId(), new ZstdCodec(9).getId());
+    byte[] dictionary = dictionary(1);
+    assertEquals(new ZstdDictionaryCodec(dictionary, 3).getId(), new ZstdDictionaryCodec(dictionary.clone(), 3).getId());
+    assertNotEquals(new ZstdDictionaryCodec(dictionary, 3).getId(), new ZstdDictionaryCodec(dictionary, 9).getId());
+    assertNotEquals(new ZstdDictionaryCodec(dictionary, 3).getId(), new ZstdDictionaryCodec(dictionary(2), 3).getId());
+  }
+
+  private static void assertRoundTrips(PayloadCodec codec) throws IOException {
+    Random random = new Random(42);
+    for (int size : new int[]{0, 1, 200, 1000, 16000}) {
+      byte[] payload = record(random, size);
+      byte[] encoded = codec.encode(payload);
+      assertArrayEquals(payload, codec.decode(encoded, MAX_SIZE), codec.getName() + " " + size);
+    }
+    byte[] noise = new byte[4096];
+    random.nextBytes(noise);
+    assertArrayEquals(noise, codec.decode(codec.encode(noise), MAX_SIZE), codec.getName() + " random bytes");
+  }
+
+  private static List<PayloadCodec> codecs() {
+    return List.of(new Lz4Codec(), new ZstdCodec(3), new ZstdDictionaryCodec(dictionary(1), 3));
+  }
+
+  private static byte[] dictionary(long seed) {
+    Random random = new Random(seed);
+    List<byte[]> samples = new ArrayList<>();
+    for (int x = 0; x < 2000; x++) {
+      samples.add(record(random, 300));
+    }
+    return ZstdDictionaryCodec.train(samples, 4096);
+  }
+
+  /**
+   * JSON telemetry of about the given size, truncated to it exactly
+   */
+  private static byte[] record(Random random, int size) {
+    StringBuilder sb = new StringBuilder(size + 64);
+    sb.append("{\"deviceId\":\"sensor-").append(random.nextInt(1000)).append("\",\"readings\":[");
+    while (sb.length() < size) {
+      sb.append("{\"metric\":\"temperature\",\"value\":").append(random.nextInt(10_000) / 100.0).append("},");
+    }
+    byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+    assertTrue(bytes.length >= size);
+    return Arrays.copyOf(bytes, size);
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.ibm_mq;
+
+import com.ibm.mq.*;
+
+import java.util.Hashtable;
+
+/**
+ * Connects using the IBM MQ classes for Java
+ */
+public class IbmMqConnector implements MqConnector {
+
+  @Override
+  public MqConnection connect(String queueManagerName, Hashtable<String, Object> properties) throws MQException {
+    return new QueueManagerConnection(new MQQueueManager(queueManagerName, properties));
+  }
+
+  private static final class QueueManagerConnection implements MqConnection {
+
+    private final MQQueueManager queueManager;
+
+    QueueManagerConnection(MQQueueManager queueManager) {
+      this.queueManager = queueManager;
+    }
+
+    @Override
+    public MqDestination accessQueue(String queueName, int options) throws MQException {
+      return new QueueDestination(queueManager.accessQueue(queueName, options));
+    }
+
+    @Override
+    public void commit() throws MQException {
+      queueManager.commit();
+    }
+
+    @Override
+    public void backout() throws MQException {
+      queueManager.backout();
+    }
+
+    @Override
+    public void disconnect() throws MQException {
+      queueManager.disconnect();
+    }
+  }
+
+  private static final class QueueDestination implements MqDestination {
+
+    private final MQQueue queue;
+
+    QueueDestination(MQQueue queue) {
+      this.queue = queue;
+    }
+
+    @Override
+    public void put(MQMessage message, MQPutMessageOptions options) throws MQException {
+      queue.put(message, options);
+    }
+
+    @Override
+    public void get(MQMessage message, MQGetMessageOptions options) throws MQException {
+      queue.get(message, options);
+    }
+
+    @Override
+    public void close() throws MQException {
+      queue.close();
+    }
+  }
+}
@@ -0,0 +1,34 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.ibm_mq;
+
+import com.ibm.mq.MQException;
+
+import java.util.Hashtable;
+
+/**
+ * Opens the connection to the queue manager. The protocol only talks to MQ through {@link MqConnection} and
+ * {@link MqDestination}, so the IBM MQ client can be replaced, for example by an in-memory queue manager when
+ * testing throughput without a server.
+ */
+public interface MqConnector {
+
+  MqConnection connect(String queueManagerName, Hashtable<String, Object> properties) throws MQException;
+}
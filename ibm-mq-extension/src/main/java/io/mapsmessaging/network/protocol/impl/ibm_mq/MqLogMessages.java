@@ -36,6 +36,11 @@ public enum MqLogMessages implements LogMessage {
   MQ_SUBSCRIBE_REMOTE_SUCCESS(LEVEL.INFO, MQ_CATEGORY.PROTOCOL, "Subscribed to MQ queue: {}"),
   MQ_SUBSCRIBE_LOCAL_SUCCESS(LEVEL.INFO, MQ_CATEGORY.PROTOCOL, "Registered local MQ producer for queue: {}"),
   MQ_POLL_ERROR(LEVEL.ERROR, MQ_CATEGORY.PROTOCOL, "Error polling MQ messages from {}"),
+  MQ_COMMIT_ERROR(LEVEL.ERROR, MQ_CATEGORY.PROTOCOL, "Failed to commit batch of {} MQ messages"),
+  MQ_PUT_REJECTED(LEVEL.ERROR, MQ_CATEGORY.PROTOCOL, "MQ rejected message for {} with reason {}, it has been dropped and the rest of the batch put again"),
+  MQ_BATCH_RETRY(LEVEL.WARN, MQ_CATEGORY.PROTOCOL, "Backed out batch of {} MQ messages, retry {} of {}"),
+  MQ_BACKOUT_ERROR(LEVEL.ERROR, MQ_CATEGORY.PROTOCOL, "Failed to back out MQ unit of work"),
+  MQ_POLL_STILL_RUNNING(LEVEL.WARN, MQ_CATEGORY.PROTOCOL, "MQ poll of {} still running at the shutdown deadline, closing anyway"),
   ;
 
   ;
@@ -0,0 +1,140 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.ibm_mq;
+
+import com.ibm.mq.MQException;
+import com.ibm.mq.MQMessage;
+import io.mapsmessaging.api.MessageBuilder;
+import io.mapsmessaging.api.message.Message;
+import io.mapsmessaging.api.message.TypedData;
+import io.mapsmessaging.network.protocol.impl.commons.EncodedPayload;
+import io.mapsmessaging.network.protocol.impl.commons.PayloadCodecs;
+
+import java.io.IOException;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Converts between MAPS messages and MQ messages, the message properties are mapped onto the typed MQ message
+ * properties in both directions. An encoded payload carries its codec in the {@link PayloadCodecs#CODEC_PROPERTY}
+ * property, which is removed again once the payload has been decoded.
+ */
+public class MqMessageConverter {
+
+  private MqMessageConverter() {
+  }
+
+  public static MQMessage toMqMessage(Message message, EncodedPayload payload) throws MQException, IOException {
+    MQMessage mqMessage = new MQMessage();
+    if (payload.getData() != null) {
+      mqMessage.write(payload.getData());
+    }
+    if(message.getCorrelationData() != null) {
+      mqMessage.correlationId = message.getCorrelationData();
+    }
+    if(message.getContentType() != null) {
+      mqMessage.format = message.getContentType();
+    }
+    setProperties(mqMessage, message.getDataMap());
+    if (payload.getCodec() != null) {
+      mqMessage.setStringProperty(PayloadCodecs.CODEC_PROPERTY, payload.getCodecName());
+    }
+    return mqMessage;
+  }
+
+  public static void setProperties(MQMessage mqMessage, Map<String, TypedData> dataMap) throws MQException {
+    for(Map.Entry<String, TypedData> entry:dataMap.entrySet()) {
+      switch(entry.getValue().getType()){
+        case STRING:
+          mqMessage.setStringProperty(entry.getKey(), (String)entry.getValue().getData());
+          break;
+
+        case INT:
+          mqMessage.setIntProperty(entry.getKey(), (Integer)entry.getValue().getData());
+          break;
+
+        case LONG:
+          mqMessage.setLongProperty(entry.getKey(), (Long)entry.getValue().getData());
+          break;
+
+        case FLOAT:
+          mqMessage.setFloatProperty(entry.getKey(), (Float)entry.getValue().getData());
+          break;
+
+        case DOUBLE:
+          mqMessage.setDoubleProperty(entry.getKey(), (Double)entry.getValue().getData());
+          break;
+
+        case BOOLEAN:
+          mqMessage.setBooleanProperty(entry.getKey(), (Boolean)entry.getValue().getData());
+          break;
+
+        case SHORT:
+          mqMessage.setShortProperty(entry.getKey(), (Short)entry.getValue().getData());
+          break;
+
+        case BYTE:
+          mqMessage.setByteProperty(entry.getKey(), (Byte)entry.getValue().getData());
+          break;
+
+        case CHAR:
+          mqMessage.setStringProperty(entry.getKey(), (String)entry.getValue().getData());
+          break;
+
+        default:
+          break;
+      }
+    }
+  }
+
+  /**
+   * @param codecs Decodes payloads sent with a codec, or null to leave them as received
+   */
+  public static Message toMapsMessage(MQMessage message, PayloadCodecs codecs) throws MQException, IOException {
+    byte[] data = new byte[message.getDataLength()];
+    message.readFully(data);
+    Map<String, TypedData> properties = getProperties(message);
+    if (codecs != null) {
+      TypedData codec = properties.remove(PayloadCodecs.CODEC_PROPERTY);
+      if (codec != null && codec.getData() != null) {
+        data = codecs.decode(codec.getData().toString(), data);
+      }
+    }
+    MessageBuilder messageBuilder = new MessageBuilder();
+    messageBuilder.setOpaqueData(data);
+    messageBuilder.setCorrelationData(message.correlationId);
+    messageBuilder.setExpiry(message.expiry);
+    messageBuilder.setContentType(message.format);
+    messageBuilder.setDataMap(properties);
+    return messageBuilder.build();
+  }
+
+  public static Map<String, TypedData> getProperties(MQMessage message) throws MQException {
+    Enumeration<String> propertyNames = message.getPropertyNames("%");
+    Map<String, TypedData> map = new LinkedHashMap<>();
+    while(propertyNames.hasMoreElements()) {
+      String propertyName = propertyNames.nextElement();
+      Object obj = message.getObjectProperty(propertyName);
+      map.put(propertyName, new TypedData(obj));
+    }
+    return map;
+  }
+}
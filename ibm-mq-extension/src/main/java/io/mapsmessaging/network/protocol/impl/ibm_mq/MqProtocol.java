@@ -19,14 +19,20 @@
 
 package io.mapsmessaging.network.protocol.impl.ibm_mq;
 
-import io.mapsmessaging.api.MessageBuilder;
 import io.mapsmessaging.api.message.Message;
-import io.mapsmessaging.api.message.TypedData;
 import io.mapsmessaging.dto.rest.config.protocol.impl.ExtensionConfigDTO;
 import io.mapsmessaging.logging.Logger;
 import io.mapsmessaging.logging.LoggerFactory;
 import io.mapsmessaging.network.EndPointURL;
 import io.mapsmessaging.network.io.EndPoint;
+import io.mapsmessaging.network.protocol.impl.commons.EncodedPayload;
+import io.mapsmessaging.network.protocol.impl.commons.ExtensionConfig;
+import io.mapsmessaging.network.protocol.impl.commons.ExtensionMetrics;
+import io.mapsmessaging.network.protocol.impl.commons.LogSampler;
+import io.mapsmessaging.network.protocol.impl.commons.OutboundMessage;
+import io.mapsmessaging.network.protocol.impl.commons.OutboundPipeline;
+import io.mapsmessaging.network.protocol.impl.commons.PayloadCodecs;
+import io.mapsmessaging.network.protocol.impl.commons.ShutdownDeadline;
 import io.mapsmessaging.network.protocol.impl.extension.Extension;
 import io.mapsmessaging.utilities.threads.SimpleTaskScheduler;
 import jakarta.validation.constraints.NotNull;
@@ -38,48 +44,118 @@ import com.ibm.mq.constants.*;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class MqProtocol extends Extension {
 
-  private MQQueueManager queueManager;
+  private final MqConnector connector;
+  private MqConnection queueManager;
 
   private final ScheduledFuture<?> scheduledTask;
   private final Logger logger;
   private final EndPointURL url;
+  private final String name;
   private final ExtensionConfigDTO protocolConfig;
-  private final Map<String, MQQueue> producers;
-  private final Map<String, MQQueue> consumers;
+  private final Map<String, MqDestination> producers;
+  private final Map<String, MqDestination> consumers;
+  private final OutboundPipeline<OutboundMessage> pipeline;
+  private final ExtensionMetrics metrics;
+  private final LogSampler sentLogSampler;
+  private final PayloadCodecs codecs;
+  private final int pollBatchSize;
+  private final int maxRetries;
+  private final long retryBackoffMs;
+  private final long shutdownTimeoutMs;
+  private final ReentrantLock pollLock;
+  private volatile boolean closing;
 
   public MqProtocol(@NonNull @NotNull EndPoint endPoint, ExtensionConfigDTO protocolConfigDTO) {
+    this(endPoint, protocolConfigDTO, new IbmMqConnector());
+  }
+
+  public MqProtocol(@NonNull @NotNull EndPoint endPoint, ExtensionConfigDTO protocolConfigDTO, @NonNull @NotNull MqConnector connector) {
+    this.connector = connector;
     protocolConfig = protocolConfigDTO;
     url = new EndPointURL(endPoint.getConfig().getUrl());
     logger = LoggerFactory.getLogger(MqProtocol.class);
-    producers = new LinkedHashMap<>();
+    producers = new ConcurrentHashMap<>();
     consumers = new LinkedHashMap<>();
+    ExtensionConfig config = new ExtensionConfig(protocolConfig.getConfig());
+    name = "mq:" + url.getHost() + ":" + url.getPort() + "/" + config.getString("queueManager", "");
+    pipeline = new OutboundPipeline<>(name, config, this::sendBatch);
+    metrics = new ExtensionMetrics(name, config);
+    metrics.registerGauge("outboundQueueSize", pipeline::getQueueSize);
+    metrics.registerGauge("outboundDropped", pipeline::getDropped);
+    sentLogSampler = new LogSampler(config);
+    codecs = new PayloadCodecs(config);
+    pollBatchSize = Math.max(1, config.getInt("pollBatchSize", 1000));
+    maxRetries = Math.max(0, config.getInt("maxRetries", 3));
+    retryBackoffMs = Math.max(1, config.getLong("retryBackoffMs", 100));
+    shutdownTimeoutMs = config.getLong("shutdownTimeoutMs", 30_000);
+    pollLock = new ReentrantLock();
     scheduledTask = SimpleTaskScheduler.getInstance().scheduleAtFixedRate(new ScheduleRunner(), 1, 1, TimeUnit.SECONDS);
   }
 
+  /**
+   * Stops polling without interrupting a get that is in progress, lets the pipeline put and commit what is queued
+   * and then closes the queues. Every step shares the shutdownTimeoutMs deadline.
+   */
   @Override
   public void close() throws IOException {
+    ShutdownDeadline deadline = new ShutdownDeadline(name, shutdownTimeoutMs);
+    closing = true;
     if(scheduledTask != null) {
-      scheduledTask.cancel(true);
+      scheduledTask.cancel(false);
+    }
+    boolean pollStopped = awaitPollStopped(deadline);
+    pipeline.close(deadline);
+    // The queues share one connection, which serialises calls on it, so they are closed in turn. A failure on one
+    // must not leave the rest open or skip the disconnect.
+    for (MqDestination consumer : consumers.values()) {
+      closeQueue(consumer);
+    }
+    for (MqDestination producer : producers.values()) {
+      closeQueue(producer);
     }
     try {
-      for (MQQueue consumer : consumers.values()) {
-        consumer.close();
-      }
-      for (MQQueue producer : producers.values()) {
-        producer.close();
-      }
       if (queueManager != null) queueManager.disconnect();
     } catch (MQException e) {
       logger.log(MqLogMessages.MQ_CLOSE_ERROR, e);
     }
+    if (pollStopped) {
+      pollLock.unlock();
+    }
+    metrics.close();
     super.close();
   }
 
+  private void closeQueue(MqDestination queue) {
+    try {
+      queue.close();
+    } catch (MQException e) {
+      logger.log(MqLogMessages.MQ_CLOSE_ERROR, e);
+    }
+  }
+
+  /**
+   * Holding the poll lock keeps any tick that is still due from starting once the current one has seen the closing
+   * flag and returned
+   */
+  private boolean awaitPollStopped(ShutdownDeadline deadline) {
+    try {
+      if (pollLock.tryLock(deadline.remainingMs(), TimeUnit.MILLISECONDS)) {
+        return true;
+      }
+      logger.log(MqLogMessages.MQ_POLL_STILL_RUNNING, url.getHost());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return false;
+  }
+
   @Override
   public void initialise() throws IOException {
     try {
@@ -88,7 +164,7 @@ public class MqProtocol extends Extension {
       Hashtable<String, Object> hash = new Hashtable<>();
       hash.putAll(config);
       String queueManagerName = (String)protocolConfig.getConfig().get("queueManager");
-      queueManager = new MQQueueManager(queueManagerName, hash);
+      queueManager = connector.connect(queueManagerName, hash);
       logger.log(MqLogMessages.MQ_INITIALIZED, url.getHost());
     } catch (MQException e) {
       logger.log(MqLogMessages.MQ_INITIALIZE_ERROR, e);
@@ -114,73 +190,143 @@ public class MqProtocol extends Extension {
 
   @Override
   public void outbound(@NonNull @NotNull String destinationName, @NonNull @NotNull Message message) {
-    try {
-      MQQueue queue = producers.get(destinationName);
-      if (queue != null) {
-        MQMessage mqMessage = new MQMessage();
-        mqMessage.write(message.getOpaqueData());
-        if(message.getCorrelationData() != null) {
-          mqMessage.correlationId = message.getCorrelationData();
+    if (!pipeline.submit(new OutboundMessage(destinationName, message))) {
+      logger.log(MqLogMessages.MQ_SEND_ERROR, destinationName);
+    }
+  }
+
+  /**
+   * Called from the outbound pipeline's worker, the batch is put under syncpoint and committed as one unit of work.
+   * A transient failure backs it out and puts it again after a delay. A message the queue manager rejects outright is
+   * dropped on its own and the rest of the batch put again straight away.
+   */
+  private void sendBatch(List<OutboundMessage> batch) {
+    MQPutMessageOptions putOptions = new MQPutMessageOptions();
+    putOptions.options = CMQC.MQPMO_SYNCPOINT | CMQC.MQPMO_NEW_MSG_ID;
+    List<PreparedPut> puts = new ArrayList<>(batch.size());
+    for (OutboundMessage outboundMessage : batch) {
+      PreparedPut put = prepare(outboundMessage);
+      if (put != null) {
+        puts.add(put);
+      }
+    }
+    if (puts.isEmpty()) {
+      return;
+    }
+    int attempt = 0;
+    while (!puts.isEmpty()) {
+      PreparedPut current = null;
+      try {
+        for (PreparedPut put : puts) {
+          current = put;
+          put.queue.put(put.mqMessage, putOptions);
         }
-        if(message.getContentType() != null) {
-          mqMessage.format = message.getContentType();
+        current = null;
+        queueManager.commit();
+        for (PreparedPut put : puts) {
+          OutboundMessage outboundMessage = put.outboundMessage;
+          metrics.link(outboundMessage.getDestination()).sent(put.size, outboundMessage.getSubmitted());
+          if (sentLogSampler.sample()) {
+            logger.log(MqLogMessages.MQ_MESSAGE_SENT, outboundMessage.getDestination());
+          }
         }
-        for(Map.Entry<String, TypedData> entry:message.getDataMap().entrySet()) {
-          switch(entry.getValue().getType()){
-            case STRING:
-              mqMessage.setStringProperty(entry.getKey(), (String)entry.getValue().getData());
-              break;
-
-            case INT:
-              mqMessage.setIntProperty(entry.getKey(), (Integer)entry.getValue().getData());
-              break;
-
-            case LONG:
-              mqMessage.setLongProperty(entry.getKey(), (Long)entry.getValue().getData());
-              break;
-
-            case FLOAT:
-              mqMessage.setFloatProperty(entry.getKey(), (Float)entry.getValue().getData());
-              break;
-
-            case DOUBLE:
-              mqMessage.setDoubleProperty(entry.getKey(), (Double)entry.getValue().getData());
-              break;
-
-            case BOOLEAN:
-              mqMessage.setBooleanProperty(entry.getKey(), (Boolean)entry.getValue().getData());
-              break;
-
-            case SHORT:
-              mqMessage.setShortProperty(entry.getKey(), (Short)entry.getValue().getData());
-              break;
-
-            case BYTE:
-              mqMessage.setByteProperty(entry.getKey(), (Byte)entry.getValue().getData());
-              break;
-
-            case CHAR:
-              mqMessage.setStringProperty(entry.getKey(), (String)entry.getValue().getData());
-              break;
-
-              default:
-                break;
+        return;
+      } catch (MQException e) {
+        backout();
+        if (current != null && !isTransient(e)) {
+          String destinationName = current.outboundMessage.getDestination();
+          logger.log(MqLogMessages.MQ_PUT_REJECTED, destinationName, e.reasonCode, e);
+          metrics.link(destinationName).error(reasonOf(e));
+          puts.remove(current);
+          continue;
+        }
+        if (attempt >= maxRetries || !awaitRetry(attempt)) {
+          logger.log(MqLogMessages.MQ_COMMIT_ERROR, puts.size(), e);
+          for (PreparedPut put : puts) {
+            metrics.link(put.outboundMessage.getDestination()).error(reasonOf(e));
           }
+          return;
         }
-        queue.put(mqMessage);
-        logger.log(MqLogMessages.MQ_MESSAGE_SENT, destinationName);
-      } else {
-        logger.log(MqLogMessages.MQ_PRODUCER_NOT_FOUND, destinationName);
+        attempt++;
+        logger.log(MqLogMessages.MQ_BATCH_RETRY, puts.size(), attempt, maxRetries, e);
       }
-    } catch (MQException | IOException e) {
+    }
+  }
+
+  /**
+   * Reason codes that may clear by themselves, anything else rejects the message whenever it is put
+   */
+  private static boolean isTransient(MQException e) {
+    switch (e.reasonCode) {
+      case CMQC.MQRC_BACKED_OUT:
+      case CMQC.MQRC_CONNECTION_BROKEN:
+      case CMQC.MQRC_SYNCPOINT_LIMIT_REACHED:
+      case CMQC.MQRC_PUT_INHIBITED:
+      case CMQC.MQRC_Q_FULL:
+      case CMQC.MQRC_Q_SPACE_NOT_AVAILABLE:
+      case CMQC.MQRC_Q_MGR_NOT_AVAILABLE:
+      case CMQC.MQRC_STORAGE_NOT_AVAILABLE:
+      case CMQC.MQRC_RESOURCE_PROBLEM:
+      case CMQC.MQRC_Q_MGR_QUIESCING:
+      case CMQC.MQRC_Q_MGR_STOPPING:
+      case CMQC.MQRC_CONNECTION_QUIESCING:
+      case CMQC.MQRC_CONNECTION_STOPPING:
+      case CMQC.MQRC_HOST_NOT_AVAILABLE:
+      case CMQC.MQRC_RECONNECTING:
+      case CMQC.MQRC_RECONNECT_FAILED:
+      case CMQC.MQRC_CALL_INTERRUPTED:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private @Nullable PreparedPut prepare(OutboundMessage outboundMessage) {
+    String destinationName = outboundMessage.getDestination();
+    MqDestination queue = producers.get(destinationName);
+    if (queue == null) {
+      logger.log(MqLogMessages.MQ_PRODUCER_NOT_FOUND, destinationName);
+      metrics.link(destinationName).error("producerNotFound");
+      return null;
+    }
+    try {
+      Message message = outboundMessage.getMessage();
+      EncodedPayload payload = codecs.encode(message, destinationName);
+      byte[] data = payload.getData();
+      return new PreparedPut(outboundMessage, queue, MqMessageConverter.toMqMessage(message, payload), data != null ? data.length : 0);
+    } catch (IOException e) {
       logger.log(MqLogMessages.MQ_SEND_ERROR, destinationName, e);
+      metrics.link(destinationName).error(e);
+      return null;
+    }
+  }
+
+  private void backout() {
+    try {
+      queueManager.backout();
+    } catch (MQException e) {
+      // A broken connection has already backed the unit of work out
+      logger.log(MqLogMessages.MQ_BACKOUT_ERROR, e);
+    }
+  }
+
+  /**
+   * @return false if interrupted, which the pipeline does once the shutdown deadline has passed
+   */
+  private boolean awaitRetry(int attempt) {
+    try {
+      TimeUnit.MILLISECONDS.sleep(retryBackoffMs << Math.min(attempt, 10));
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
     }
   }
 
   @Override
   public void registerRemoteLink(@NotNull @NotNull String destination, @Nullable String filter) throws IOException {
     try {
-      MQQueue queue = queueManager.accessQueue(destination, CMQC.MQOO_INPUT_AS_Q_DEF);
+      MqDestination queue = queueManager.accessQueue(destination, CMQC.MQOO_INPUT_AS_Q_DEF);
       consumers.put(destination, queue);
       logger.log(MqLogMessages.MQ_SUBSCRIBE_REMOTE_SUCCESS, destination);
     } catch (MQException e) {
@@ -191,7 +337,7 @@ public class MqProtocol extends Extension {
   @Override
   public void registerLocalLink(@NonNull @NotNull String destination) throws IOException {
     try {
-      MQQueue queue = queueManager.accessQueue(destination, CMQC.MQOO_OUTPUT);
+      MqDestination queue = queueManager.accessQueue(destination, CMQC.MQOO_OUTPUT);
       producers.put(destination, queue);
       logger.log(MqLogMessages.MQ_SUBSCRIBE_LOCAL_SUCCESS, destination);
     } catch (MQException e) {
@@ -199,32 +345,48 @@ public class MqProtocol extends Extension {
     }
   }
 
-  public void pollMessages(@NotNull String destination,  @NotNull MQQueue queue ) {
+  /**
+   * @return true if a message was received, false if the queue is empty or the get failed
+   */
+  public boolean pollMessages(@NotNull String destination,  @NotNull MqDestination queue ) {
     try {
       MQMessage message = new MQMessage();
       MQGetMessageOptions gmo = new MQGetMessageOptions();
       gmo.options = CMQC.MQGMO_NO_WAIT;
       queue.get(message, gmo);
-      byte[] data = new byte[message.getDataLength()];
-      message.readFully(data);
-      MessageBuilder messageBuilder = new MessageBuilder();
-      messageBuilder.setCorrelationData(message.correlationId);
-      messageBuilder.setExpiry(message.expiry);
-      messageBuilder.setContentType(message.format);
-
-      Enumeration<String> propertyNames = message.getPropertyNames("%");
-      Map<String, TypedData> map = new LinkedHashMap<>();
-      while(propertyNames.hasMoreElements()) {
-        String propertyName = propertyNames.nextElement();
-        Object obj = message.getObjectProperty(propertyName);
-        map.put(propertyName, new TypedData(obj));
+      long start = System.nanoTime();
+      int size = message.getDataLength();
+      inbound(destination, MqMessageConverter.toMapsMessage(message, codecs));
+      metrics.link(destination).received(size, start);
+      return true;
+    } catch (MQException e) {
+      // An empty queue is reported as an exception, it is the normal outcome of a poll and not an error
+      if (e.reasonCode != CMQC.MQRC_NO_MSG_AVAILABLE) {
+        logger.log(MqLogMessages.MQ_POLL_ERROR, destination, e);
+        metrics.link(destination).error(reasonOf(e));
       }
-      messageBuilder.setDataMap(map);
+    } catch (IOException e) {
+      logger.log(MqLogMessages.MQ_POLL_ERROR, destination, e);
+      metrics.link(destination).error(e);
+    }
+    return false;
+  }
 
+  private static String reasonOf(MQException e) {
+    return "MQRC_" + e.reasonCode;
+  }
 
-      inbound(destination, messageBuilder.build());
-    } catch (MQException | IOException e) {
-//      logger.log(MqLogMessages.MQ_POLL_ERROR, destination, e);
+  private static final class PreparedPut {
+    private final OutboundMessage outboundMessage;
+    private final MqDestination queue;
+    private final MQMessage mqMessage;
+    private final int size;
+
+    PreparedPut(OutboundMessage outboundMessage, MqDestination queue, MQMessage mqMessage, int size) {
+      this.outboundMessage = outboundMessage;
+      this.queue = queue;
+      this.mqMessage = mqMessage;
+      this.size = size;
     }
   }
 
@@ -234,8 +396,19 @@ public class MqProtocol extends Extension {
 
     @Override
     public void run() {
-      for (Map.Entry<String, MQQueue> entry:consumers.entrySet()) {
-        pollMessages(entry.getKey(), entry.getValue());
+      if (!pollLock.tryLock()) {
+        return;
+      }
+      try {
+        // Drain what has arrived since the last tick rather than taking a single message a second
+        for (Map.Entry<String, MqDestination> entry:consumers.entrySet()) {
+          int count = 0;
+          while (!closing && count < pollBatchSize && pollMessages(entry.getKey(), entry.getValue())) {
+            count++;
+          }
+        }
+      } finally {
+        pollLock.unlock();
       }
     }
   }
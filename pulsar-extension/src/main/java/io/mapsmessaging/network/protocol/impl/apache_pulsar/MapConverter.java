@@ -20,11 +20,55 @@
 package io.mapsmessaging.network.protocol.impl.apache_pulsar;
 
 import io.mapsmessaging.api.message.TypedData;
+import io.mapsmessaging.network.protocol.impl.commons.ConversionKey;
+import io.mapsmessaging.network.protocol.impl.commons.PayloadCodecs;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 public class MapConverter {
+
+  private static final ConversionKey<Map<String, String>> PROPERTIES = new ConversionKey<>("pulsar.properties");
+
+  private static final Map<String, ConversionKey<Map<String, String>>> CODEC_PROPERTIES = new ConcurrentHashMap<>();
+
+  /**
+   * @param codec The payload codec, or null if the payload is sent as it is
+   * @return The conversion cache key for the properties sent with that codec
+   */
+  public static ConversionKey<Map<String, String>> propertiesKey(String codec) {
+    if (codec == null) {
+      return PROPERTIES;
+    }
+    return CODEC_PROPERTIES.computeIfAbsent(codec, name -> new ConversionKey<>("pulsar.properties:" + name));
+  }
+
+  /**
+   * Values are sent in their string form, binary values are left out
+   *
+   * @param codec Recorded in the {@link PayloadCodecs#CODEC_PROPERTY} property if not null
+   * @return An unmodifiable map, it is shared between the links a message fans out to
+   */
+  public static Map<String, String> toProperties(Map<String, TypedData> dataMap, String codec) {
+    if ((dataMap == null || dataMap.isEmpty()) && codec == null) {
+      return Collections.emptyMap();
+    }
+    Map<String, String> properties = new LinkedHashMap<>();
+    if (dataMap != null) {
+      for (Map.Entry<String, TypedData> entry : dataMap.entrySet()) {
+        Object data = entry.getValue() != null ? entry.getValue().getData() : null;
+        if (data != null && !(data instanceof byte[])) {
+          properties.put(entry.getKey(), data.toString());
+        }
+      }
+    }
+    if (codec != null) {
+      properties.put(PayloadCodecs.CODEC_PROPERTY, codec);
+    }
+    return Collections.unmodifiableMap(properties);
+  }
+
   public static Map<String, TypedData> convertMap(Map<String, String> inputMap) {
     return inputMap.entrySet().stream()
         .collect(Collectors.toMap(
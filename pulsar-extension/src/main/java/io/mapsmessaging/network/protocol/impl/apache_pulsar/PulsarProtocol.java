@@ -23,6 +23,16 @@ import io.mapsmessaging.logging.Logger;
 import io.mapsmessaging.logging.LoggerFactory;
 import io.mapsmessaging.network.EndPointURL;
 import io.mapsmessaging.network.io.EndPoint;
+import io.mapsmessaging.network.protocol.impl.commons.ConversionCache;
+import io.mapsmessaging.network.protocol.impl.commons.EncodedPayload;
+import io.mapsmessaging.network.protocol.impl.commons.ExtensionConfig;
+import io.mapsmessaging.network.protocol.impl.commons.ExtensionMetrics;
+import io.mapsmessaging.network.protocol.impl.commons.LinkMetrics;
+import io.mapsmessaging.network.protocol.impl.commons.LogSampler;
+import io.mapsmessaging.network.protocol.impl.commons.OutboundMessage;
+import io.mapsmessaging.network.protocol.impl.commons.OutboundPipeline;
+import io.mapsmessaging.network.protocol.impl.commons.PayloadCodecs;
+import io.mapsmessaging.network.protocol.impl.commons.ShutdownDeadline;
 import io.mapsmessaging.network.protocol.impl.extension.Extension;
 import io.mapsmessaging.dto.rest.config.protocol.impl.ExtensionConfigDTO;
 import jakarta.validation.constraints.NotNull;
@@ -31,36 +41,86 @@ import org.apache.pulsar.client.api.*;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 public class PulsarProtocol extends Extension {
 
   private final Logger logger;
   private final EndPointURL url;
+  private final String name;
   private PulsarClient client;
 
   private final Map<String, Producer<byte[]>> producers;
   private final Map<String, Consumer<byte[]>> consumers;
+  private final OutboundPipeline<OutboundMessage> pipeline;
+  private final ExtensionMetrics metrics;
+  private final LogSampler sentLogSampler;
+  private final AtomicLong inFlight;
+  private final long shutdownTimeoutMs;
+  private final ConversionCache conversionCache;
+  private final PayloadCodecs codecs;
 
   public PulsarProtocol(@NonNull @NotNull EndPoint endPoint, ExtensionConfigDTO protocolConfigDTO) {
     url = new EndPointURL(endPoint.getConfig().getUrl());
     logger = LoggerFactory.getLogger(PulsarProtocol.class);
     logger.log(PulsarLogMessages.INITIALISE_PULSAR_ENDPOINT, url.toString());
-    producers = new LinkedHashMap<>();
+    producers = new ConcurrentHashMap<>();
     consumers = new LinkedHashMap<>();
+    ExtensionConfig config = new ExtensionConfig(protocolConfigDTO.getConfig());
+    name = "pulsar:" + url.getHost() + ":" + url.getPort();
+    pipeline = new OutboundPipeline<>(name, config, this::sendBatch);
+    inFlight = new AtomicLong();
+    metrics = new ExtensionMetrics(name, config);
+    metrics.registerGauge("outboundQueueSize", pipeline::getQueueSize);
+    metrics.registerGauge("outboundDropped", pipeline::getDropped);
+    metrics.registerGauge("inFlight", inFlight::get);
+    sentLogSampler = new LogSampler(config);
+    shutdownTimeoutMs = config.getLong("shutdownTimeoutMs", 30_000);
+    conversionCache = ConversionCache.forConfig(config);
+    codecs = new PayloadCodecs(config);
   }
 
+  /**
+   * Pauses the consumers, drains the pipeline and flushes the producers, then closes the consumers and producers
+   * within the shutdownTimeoutMs deadline
+   */
   @Override
   public void close() throws IOException {
+    logger.log(PulsarLogMessages.CLOSE_PULSAR_ENDPOINT);
+    ShutdownDeadline deadline = new ShutdownDeadline(name, shutdownTimeoutMs);
+    for(Consumer<byte[]> consumer : consumers.values()) {
+      consumer.pause();
+    }
+    pipeline.close(deadline);
+
+    List<CompletableFuture<Void>> flushes = new ArrayList<>();
+    for(Producer<byte[]> producer : producers.values()) {
+      flushes.add(producer.flushAsync());
+    }
+    deadline.awaitAll("producer flush", flushes);
+
+    List<CompletableFuture<Void>> closes = new ArrayList<>();
     for(Consumer<byte[]> consumer : consumers.values()) {
-      consumer.close();
+      closes.add(consumer.closeAsync());
     }
     for(Producer<byte[]> producer : producers.values()) {
-      producer.close();
+      closes.add(producer.closeAsync());
+    }
+    deadline.awaitAll("consumer and producer close", closes);
+
+    // initialise() logs rather than throws if the client could not be built
+    if (client != null) {
+      deadline.await("client close", client.closeAsync());
     }
-    client.close();
+    metrics.close();
     super.close();
   }
 
@@ -70,15 +130,23 @@ public class PulsarProtocol extends Extension {
   @Override
   public void initialise(){
     try {
-      client = PulsarClient.builder()
-          .serviceUrl("pulsar://" + url.getHost() + ":" + url.getPort())
-          .build();
+      client = createClient("pulsar://" + url.getHost() + ":" + url.getPort());
     }
     catch (PulsarClientException e) {
       logger.log(PulsarLogMessages.PULSAR_SESSION_CREATION_ERROR, e);
     }
   }
 
+  /**
+   * Creates the client used for all producers and consumers of this endpoint, overridden to run against an
+   * in-memory stand-in rather than a Pulsar server
+   */
+  protected PulsarClient createClient(String serviceUrl) throws PulsarClientException {
+    return PulsarClient.builder()
+        .serviceUrl(serviceUrl)
+        .build();
+  }
+
   @Override
   public @NonNull String getName() {
     return "PulsarProtocol";
@@ -105,7 +173,7 @@ public class PulsarProtocol extends Extension {
     consumers.put(destination, client.newConsumer()
         .subscriptionName(getSessionId())
         .topic(destination)
-        .messageListener(new MessageListenerHandler())
+        .messageListener(new MessageListenerHandler(destination))
         .subscribe());
     logger.log(PulsarLogMessages.PULSAR_SUBSCRIBE_REMOTE_SUCCESS, destination);
   }
@@ -123,6 +191,7 @@ public class PulsarProtocol extends Extension {
     producers.put(destination, client.newProducer()
         .topic(destination)
         .producerName(getSessionId())
+        .blockIfQueueFull(true)
         .create());
     logger.log(PulsarLogMessages.PULSAR_SUBSCRIBE_LOCAL_SUCCESS, destination);
   }
@@ -135,14 +204,47 @@ public class PulsarProtocol extends Extension {
    */
   @Override
   public void outbound(@NonNull @NotNull String destinationName, @NonNull @NotNull io.mapsmessaging.api.message.Message message) {
-    try {
+    if (!pipeline.submit(new OutboundMessage(destinationName, message))) {
+      logger.log(PulsarLogMessages.PULSAR_FAILED_TO_SEND_MESSAGE, destinationName);
+    }
+  }
+
+  /**
+   * Called from the outbound pipeline's worker. Sends are asynchronous and batched by the Pulsar producer itself,
+   * since the producers block once their pending queue is full the worker, and so the pipeline, feel the back pressure.
+   * The properties and the encoded payload are built once per message however many links it is sent to.
+   */
+  private void sendBatch(List<OutboundMessage> batch) {
+    for (OutboundMessage outboundMessage : batch) {
+      String destinationName = outboundMessage.getDestination();
       Producer<byte[]> producer = producers.get(destinationName);
-      if(producer != null) {
-        producer.send(message.getOpaqueData());
+      LinkMetrics link = metrics.link(destinationName);
+      if (producer != null) {
+        io.mapsmessaging.api.message.Message message = outboundMessage.getMessage();
+        EncodedPayload payload = codecs.encode(message, destinationName);
+        byte[] data = payload.getData();
+        String codec = payload.getCodecName();
+        Map<String, String> properties = conversionCache.get(message, MapConverter.propertiesKey(codec), m -> MapConverter.toProperties(m.getDataMap(), codec));
+        inFlight.incrementAndGet();
+        producer.newMessage()
+            .value(data)
+            .properties(properties)
+            .sendAsync()
+            .whenComplete((messageId, error) -> {
+              inFlight.decrementAndGet();
+              if (error != null) {
+                logger.log(PulsarLogMessages.PULSAR_FAILED_TO_SEND_MESSAGE, destinationName, error);
+                link.error(error);
+              } else {
+                link.sent(data.length, outboundMessage.getSubmitted());
+                if (sentLogSampler.sample()) {
+                  logger.log(PulsarLogMessages.PULSAR_SEND_MESSAGE, destinationName);
+                }
+              }
+            });
+      } else {
+        link.error("producerNotFound");
       }
-      logger.log(PulsarLogMessages.PULSAR_SEND_MESSAGE, destinationName);
-    } catch (IOException ioException) {
-      logger.log(PulsarLogMessages.PULSAR_FAILED_TO_SEND_MESSAGE, destinationName, ioException);
     }
   }
 
@@ -151,16 +253,34 @@ public class PulsarProtocol extends Extension {
 
   private class MessageListenerHandler implements MessageListener<byte[]>{
 
+    // The link's destination, message.getTopicName() is the fully qualified persistent://tenant/namespace/topic name
+    private final LinkMetrics link;
+
+    MessageListenerHandler(String destination) {
+      link = metrics.link(destination);
+    }
+
     @Override
     public void received(Consumer<byte[]> consumer, Message<byte[]> message) {
+      long start = System.nanoTime();
       try {
+        byte[] data = message.getData();
+        Map<String, String> properties = message.getProperties();
+        String codec = properties.get(PayloadCodecs.CODEC_PROPERTY);
+        if (codec != null) {
+          data = codecs.decode(codec, data);
+          properties = new HashMap<>(properties);
+          properties.remove(PayloadCodecs.CODEC_PROPERTY);
+        }
         MessageBuilder messageBuilder = new MessageBuilder()
-            .setOpaqueData(message.getData())
-                .setDataMap(MapConverter.convertMap(message.getProperties()));
+            .setOpaqueData(data)
+                .setDataMap(MapConverter.convertMap(properties));
         inbound(message.getTopicName(), messageBuilder.build());
         consumer.acknowledge(message);
+        link.received(message.getData().length, start);
       } catch (Throwable ioException) {
         logger.log(PulsarLogMessages.PULSAR_FAILED_TO_PROCESS_INCOMING_EVENT, message.getTopicName(), ioException);
+        link.error(ioException);
       }
 
     }
@@ -0,0 +1,93 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.harness;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settings for a soak run, parsed from key=value arguments. Any argument prefixed with "extension." is passed, without
+ * the prefix, into the config of the extension under test, so pipeline and batching settings can be varied per run.
+ */
+@Getter
+public class HarnessConfig {
+
+  private static final String EXTENSION_PREFIX = "extension.";
+
+  private final List<String> targets;
+  private final int rate;
+  private final int warmupSeconds;
+  private final int durationSeconds;
+  private final int drainSeconds;
+  private final int payloadSize;
+  private final boolean binaryPayload;
+  private final int propertyCount;
+  private final String propertyMix;
+  private final String reportFile;
+  private final Map<String, Object> extensionConfig;
+
+  public HarnessConfig(String[] args) {
+    Map<String, String> values = new LinkedHashMap<>();
+    Map<String, Object> extension = new LinkedHashMap<>();
+    for (String arg : args) {
+      int index = arg.indexOf('=');
+      if (index <= 0) {
+        throw new IllegalArgumentException("Expected key=value but found " + arg);
+      }
+      String key = arg.substring(0, index);
+      String value = arg.substring(index + 1);
+      if (key.startsWith(EXTENSION_PREFIX)) {
+        extension.put(key.substring(EXTENSION_PREFIX.length()), value);
+      } else {
+        values.put(key, value);
+      }
+    }
+    targets = new ArrayList<>(Arrays.asList(values.getOrDefault("targets", "mq,pulsar,sns").split(",")));
+    rate = Integer.parseInt(values.getOrDefault("rate", "5000"));
+    warmupSeconds = Integer.parseInt(values.getOrDefault("warmupSeconds", "10"));
+    durationSeconds = Integer.parseInt(values.getOrDefault("durationSeconds", "60"));
+    drainSeconds = Integer.parseInt(values.getOrDefault("drainSeconds", "10"));
+    payloadSize = Math.max(MessageFactory.HEADER_SIZE, Integer.parseInt(values.getOrDefault("payloadSize", "1024")));
+    binaryPayload = "binary".equalsIgnoreCase(values.getOrDefault("payloadType", "text"));
+    propertyCount = Integer.parseInt(values.getOrDefault("propertyCount", "4"));
+    propertyMix = values.getOrDefault("propertyMix", MessageFactory.MIXED);
+    reportFile = values.get("report");
+    extensionConfig = extension;
+  }
+
+  /**
+   * @return a fresh, mutable, copy of the extension settings, the extensions add to the map they are given
+   */
+  public Map<String, Object> newExtensionConfig() {
+    return new LinkedHashMap<>(extensionConfig);
+  }
+
+  @Override
+  public String toString() {
+    return "rate=" + rate + "/s warmup=" + warmupSeconds + "s duration=" + durationSeconds + "s payload=" + payloadSize +
+        (binaryPayload ? " binary" : " text") + " properties=" + propertyCount + " " + propertyMix +
+        (extensionConfig.isEmpty() ? "" : " extension=" + extensionConfig);
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.harness;
+
+import io.mapsmessaging.dto.rest.config.network.EndPointServerConfigDTO;
+import io.mapsmessaging.dto.rest.config.protocol.impl.ExtensionConfigDTO;
+import io.mapsmessaging.logging.Logger;
+import io.mapsmessaging.logging.LoggerFactory;
+import io.mapsmessaging.network.io.EndPoint;
+import io.mapsmessaging.network.io.Packet;
+import io.mapsmessaging.network.io.Selectable;
+
+import java.nio.channels.SelectionKey;
+import java.util.Map;
+import java.util.concurrent.FutureTask;
+
+/**
+ * The extensions are normally handed their end point and configuration by the server. Outside of it only the URL and
+ * the config map are used, so these stand in for the rest.
+ */
+public final class HarnessEndPoints {
+
+  private HarnessEndPoints() {
+  }
+
+  public static EndPoint create(String url) {
+    return new HarnessEndPoint(url);
+  }
+
+  public static ExtensionConfigDTO config(Map<String, Object> config) {
+    ExtensionConfigDTO configDTO = new ExtensionConfigDTO();
+    configDTO.setConfig(config);
+    return configDTO;
+  }
+
+  /**
+   * Carries the URL only, there is no server or socket behind it so the I/O methods are never reached
+   */
+  private static final class HarnessEndPoint extends EndPoint {
+
+    private final EndPointServerConfigDTO config;
+
+    HarnessEndPoint(String url) {
+      super(0, null);
+      config = new EndPointServerConfigDTO();
+      config.setUrl(url);
+    }
+
+    @Override
+    public EndPointServerConfigDTO getConfig() {
+      return config;
+    }
+
+    @Override
+    public void close() {
+      // Nothing was opened
+    }
+
+    @Override
+    public String getProtocol() {
+      return "harness";
+    }
+
+    @Override
+    public int sendPacket(Packet packet) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int readPacket(Packet packet) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public FutureTask<SelectionKey> register(int selectionKey, Selectable runner) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public FutureTask<SelectionKey> deregister(int selectionKey) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String getAuthenticationConfig() {
+      return null;
+    }
+
+    @Override
+    public String getName() {
+      return config.getUrl();
+    }
+
+    @Override
+    protected Logger createLogger(String url) {
+      return LoggerFactory.getLogger(HarnessEndPoint.class);
+    }
+  }
+}
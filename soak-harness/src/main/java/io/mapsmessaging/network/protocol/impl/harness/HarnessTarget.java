@@ -0,0 +1,39 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.harness;
+
+import io.mapsmessaging.api.message.Message;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * An extension under test together with its stand-in broker. Once started, messages passed to send() go out through
+ * the extension's outbound() to the stand-in, which routes them back to a link the extension is receiving from, so
+ * every message makes the full round trip through both directions of the extension.
+ */
+public interface HarnessTarget extends Closeable {
+
+  String getName();
+
+  void start(HarnessConfig config, LatencyRecorder recorder) throws IOException;
+
+  void send(Message message);
+}
@@ -0,0 +1,82 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.harness;
+
+import io.mapsmessaging.api.message.Message;
+import io.mapsmessaging.network.protocol.impl.commons.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the end to end latency of every message that makes it back through the extension. Recording goes into the
+ * current phase, the warm up phase is thrown away once the measured phase starts.
+ */
+public class LatencyRecorder {
+
+  private volatile Phase phase;
+
+  public LatencyRecorder() {
+    phase = new Phase();
+  }
+
+  public void received(Message message) {
+    Phase current = phase;
+    long timestamp = MessageFactory.timestampOf(message.getOpaqueData());
+    if (timestamp == MessageFactory.UNKNOWN) {
+      current.unknown.increment();
+      return;
+    }
+    current.histogram.record(System.nanoTime() - timestamp);
+    current.received.increment();
+  }
+
+  /**
+   * Starts a new phase
+   *
+   * @return the phase that has ended
+   */
+  public Phase reset() {
+    Phase previous = phase;
+    phase = new Phase();
+    return previous;
+  }
+
+  public Phase getPhase() {
+    return phase;
+  }
+
+  public static final class Phase {
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder unknown = new LongAdder();
+
+    public LatencyHistogram getHistogram() {
+      return histogram;
+    }
+
+    public long getReceived() {
+      return received.sum();
+    }
+
+    public long getUnknown() {
+      return unknown.sum();
+    }
+  }
+}
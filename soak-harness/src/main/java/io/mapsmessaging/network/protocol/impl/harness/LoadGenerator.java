@@ -0,0 +1,77 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.harness;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends messages at a fixed rate from a single thread. Each message is stamped with the time it was due to be sent
+ * rather than the time it actually was, so if the extension stalls the caller the messages held up behind the stall
+ * are charged for it, and the latency percentiles are not flattered by coordinated omission.
+ */
+public class LoadGenerator implements Runnable {
+
+  private final HarnessTarget target;
+  private final MessageFactory messageFactory;
+  private final long intervalNanos;
+  private final LongAdder sent;
+  private volatile boolean running;
+  private Thread thread;
+
+  public LoadGenerator(HarnessTarget target, MessageFactory messageFactory, int rate) {
+    this.target = target;
+    this.messageFactory = messageFactory;
+    this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, rate);
+    this.sent = new LongAdder();
+  }
+
+  public void start() {
+    running = true;
+    thread = new Thread(this, "LoadGenerator-" + target.getName());
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  public void stop() throws InterruptedException {
+    running = false;
+    thread.join();
+  }
+
+  public long getSent() {
+    return sent.sum();
+  }
+
+  @Override
+  public void run() {
+    long next = System.nanoTime();
+    while (running) {
+      long now = System.nanoTime();
+      if (now < next) {
+        LockSupport.parkNanos(next - now);
+        continue;
+      }
+      target.send(messageFactory.create(next));
+      sent.increment();
+      next += intervalNanos;
+    }
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.harness;
+
+import io.mapsmessaging.api.MessageBuilder;
+import io.mapsmessaging.api.message.Message;
+import io.mapsmessaging.api.message.TypedData;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Builds the messages sent by the load generator. The first {@link #HEADER_SIZE} bytes of every payload carry the
+ * System.nanoTime() the message was due to be sent, as hex so text payloads stay valid UTF-8, which is how the
+ * receiving side measures the latency. Pulsar only carries the payload, so it can not go in a property.
+ */
+public class MessageFactory {
+
+  public static final int HEADER_SIZE = 16;
+  public static final long UNKNOWN = Long.MIN_VALUE;
+
+  public static final String STRING = "string";
+  public static final String NUMERIC = "numeric";
+  public static final String MIXED = "mixed";
+
+  private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+  private final byte[] template;
+  private final Map<String, TypedData> properties;
+
+  public MessageFactory(HarnessConfig config) {
+    template = new byte[config.getPayloadSize()];
+    for (int x = HEADER_SIZE; x < template.length; x++) {
+      template[x] = config.isBinaryPayload() ? (byte) (x * 31 + 0x80) : (byte) ('a' + (x % 26));
+    }
+    properties = createProperties(config.getPropertyMix(), config.getPropertyCount());
+  }
+
+  public Message create(long timestamp) {
+    byte[] payload = template.clone();
+    for (int x = HEADER_SIZE - 1; x >= 0; x--) {
+      payload[x] = HEX[(int) (timestamp & 0xf)];
+      timestamp >>>= 4;
+    }
+    return new MessageBuilder()
+        .setOpaqueData(payload)
+        .setDataMap(properties)
+        .build();
+  }
+
+  /**
+   * @return the timestamp written by create(), or {@link #UNKNOWN} if the payload did not come from here
+   */
+  public static long timestampOf(byte[] payload) {
+    if (payload == null || payload.length < HEADER_SIZE) {
+      return UNKNOWN;
+    }
+    long timestamp = 0;
+    for (int x = 0; x < HEADER_SIZE; x++) {
+      int digit = Character.digit(payload[x], 16);
+      if (digit < 0) {
+        return UNKNOWN;
+      }
+      timestamp = (timestamp << 4) | digit;
+    }
+    return timestamp;
+  }
+
+  private static Map<String, TypedData> createProperties(String mix, int count) {
+    Map<String, TypedData> map = new LinkedHashMap<>();
+    for (int x = 0; x < count; x++) {
+      Object value;
+      if (STRING.equals(mix) || (MIXED.equals(mix) && x % 2 == 0)) {
+        value = "value-" + x;
+      } else if (x % 3 == 0) {
+        value = x * 1000;
+      } else if (x % 3 == 1) {
+        value = x * 1_000_000_000L;
+      } else {
+        value = x * 1.5d;
+      }
+      map.put("property_" + x, new TypedData(value));
+    }
+    return map;
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.harness;
+
+import io.mapsmessaging.network.protocol.impl.commons.LatencyHistogram;
+import lombok.Getter;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Results of the measured phase of one run. The rate is the number of messages that completed the round trip within
+ * the measured phase divided by its length, so a target that cannot keep up reports what it sustained rather than the
+ * rate it was offered. Latencies are in microseconds.
+ */
+@Getter
+public class RunReport {
+
+  private static final String HEADER = "target,offered,sent,received,lost,msg/s,p50us,p99us,p999us,maxus,gcCount,gcMs,heapMB";
+
+  private final String target;
+  private final int offeredRate;
+  private final long sent;
+  private final long received;
+  private final double rate;
+  private final long p50;
+  private final long p99;
+  private final long p999;
+  private final long max;
+  private final long gcCount;
+  private final long gcTimeMs;
+  private final long heapUsedMb;
+
+  public RunReport(String target, int offeredRate, long sent, long receivedInWindow, int durationSeconds,
+                   LatencyRecorder.Phase phase, GcSnapshot gcStart, GcSnapshot gcEnd) {
+    LatencyHistogram histogram = phase.getHistogram();
+    this.target = target;
+    this.offeredRate = offeredRate;
+    this.sent = sent;
+    this.received = phase.getReceived();
+    this.rate = receivedInWindow / (double) Math.max(1, durationSeconds);
+    this.p50 = toMicros(histogram.getValueAtPercentile(50.0));
+    this.p99 = toMicros(histogram.getValueAtPercentile(99.0));
+    this.p999 = toMicros(histogram.getValueAtPercentile(99.9));
+    this.max = toMicros(histogram.getMax());
+    this.gcCount = gcEnd.getCollections() - gcStart.getCollections();
+    this.gcTimeMs = gcEnd.getTimeMs() - gcStart.getTimeMs();
+    this.heapUsedMb = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() >> 20;
+  }
+
+  public long getLost() {
+    return Math.max(0, sent - received);
+  }
+
+  public void print() {
+    System.out.println(HEADER);
+    System.out.println(toCsv());
+  }
+
+  /**
+   * Appends the report to a CSV file, writing the header if the file is new
+   */
+  public void append(String file) throws IOException {
+    boolean exists = Files.exists(Paths.get(file));
+    try (PrintWriter writer = new PrintWriter(new FileWriter(file, true))) {
+      if (!exists) {
+        writer.println(HEADER);
+      }
+      writer.println(toCsv());
+    }
+  }
+
+  private String toCsv() {
+    return String.format(Locale.ROOT, "%s,%d,%d,%d,%d,%.1f,%d,%d,%d,%d,%d,%d,%d",
+        target, offeredRate, sent, received, getLost(), rate, p50, p99, p999, max, gcCount, gcTimeMs, heapUsedMb);
+  }
+
+  private static long toMicros(long nanos) {
+    return TimeUnit.NANOSECONDS.toMicros(nanos);
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.harness;
+
+import io.mapsmessaging.network.protocol.impl.harness.mq.MqTarget;
+import io.mapsmessaging.network.protocol.impl.harness.pulsar.PulsarTarget;
+import io.mapsmessaging.network.protocol.impl.harness.sns.SnsTarget;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives each extension at a fixed rate against an in-process stand-in for its broker and reports the throughput,
+ * latency and GC activity
+ */
+public class SoakHarness {
+
+  public static void main(String[] args) throws Exception {
+    HarnessConfig config = new HarnessConfig(args);
+    System.out.println("Soak run " + config);
+    for (String name : config.getTargets()) {
+      try (HarnessTarget target = createTarget(name.trim())) {
+        RunReport report = run(target, config);
+        report.print();
+        if (config.getReportFile() != null) {
+          report.append(config.getReportFile());
+        }
+      }
+    }
+    System.exit(0);
+  }
+
+  static RunReport run(HarnessTarget target, HarnessConfig config) throws Exception {
+    LatencyRecorder recorder = new LatencyRecorder();
+    target.start(config, recorder);
+    LoadGenerator generator = new LoadGenerator(target, new MessageFactory(config), config.getRate());
+    generator.start();
+
+    TimeUnit.SECONDS.sleep(config.getWarmupSeconds());
+    System.gc();
+    recorder.reset();
+    long sentAtStart = generator.getSent();
+    GcSnapshot gcStart = new GcSnapshot();
+
+    TimeUnit.SECONDS.sleep(config.getDurationSeconds());
+    long receivedInWindow = recorder.getPhase().getReceived();
+    generator.stop();
+    GcSnapshot gcEnd = new GcSnapshot();
+    long sent = generator.getSent() - sentAtStart;
+
+    long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(config.getDrainSeconds());
+    while (recorder.getPhase().getReceived() < sent && System.nanoTime() < drainDeadline) {
+      TimeUnit.MILLISECONDS.sleep(100);
+    }
+    return new RunReport(target.getName(), config.getRate(), sent, receivedInWindow, config.getDurationSeconds(),
+        recorder.getPhase(), gcStart, gcEnd);
+  }
+
+  private static HarnessTarget createTarget(String name) {
+    switch (name) {
+      case "mq":
+        return new MqTarget();
+      case "pulsar":
+        return new PulsarTarget();
+      case "sns":
+        return new SnsTarget();
+      default:
+        throw new IllegalArgumentException("Unknown target " + name + ", expected mq, pulsar or sns");
+    }
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.harness.mq;
+
+import com.ibm.mq.MQException;
+import com.ibm.mq.MQGetMessageOptions;
+import com.ibm.mq.MQMessage;
+import com.ibm.mq.MQPutMessageOptions;
+import com.ibm.mq.constants.CMQC;
+import io.mapsmessaging.network.protocol.impl.ibm_mq.MqConnection;
+import io.mapsmessaging.network.protocol.impl.ibm_mq.MqConnector;
+import io.mapsmessaging.network.protocol.impl.ibm_mq.MqDestination;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.Hashtable;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * An in-memory queue manager. Messages are copied on put and get, as they would be by a real queue manager, so the
+ * cost of building and reading the MQ messages, their properties included, is part of what is measured. Puts under
+ * syncpoint are held back until commit, everything else is immediate and a get never waits.
+ */
+public class InMemoryMqConnector implements MqConnector {
+
+  private final Map<String, Queue<StoredMessage>> queues = new ConcurrentHashMap<>();
+
+  @Override
+  public MqConnection connect(String queueManagerName, Hashtable<String, Object> properties) {
+    return new Connection();
+  }
+
+  private Queue<StoredMessage> queue(String queueName) {
+    return queues.computeIfAbsent(queueName, k -> new ConcurrentLinkedQueue<>());
+  }
+
+  private static MQException failure(int reason, Object source) {
+    return new MQException(CMQC.MQCC_FAILED, reason, source);
+  }
+
+  private final class Connection implements MqConnection {
+
+    private final List<Runnable> uncommitted = new ArrayList<>();
+
+    @Override
+    public MqDestination accessQueue(String queueName, int options) {
+      return new Destination(this, queue(queueName));
+    }
+
+    @Override
+    public void commit() {
+      List<Runnable> work;
+      synchronized (uncommitted) {
+        work = new ArrayList<>(uncommitted);
+        uncommitted.clear();
+      }
+      for (Runnable runnable : work) {
+        runnable.run();
+      }
+    }
+
+    @Override
+    public void backout() {
+      synchronized (uncommitted) {
+        uncommitted.clear();
+      }
+    }
+
+    @Override
+    public void disconnect() {
+      synchronized (uncommitted) {
+        uncommitted.clear();
+      }
+    }
+
+    void addUncommitted(Runnable runnable) {
+      synchronized (uncommitted) {
+        uncommitted.add(runnable);
+      }
+    }
+  }
+
+  private static final class Destination implements MqDestination {
+
+    private final Connection connection;
+    private final Queue<StoredMessage> queue;
+
+    Destination(Connection connection, Queue<StoredMessage> queue) {
+      this.connection = connection;
+      this.queue = queue;
+    }
+
+    @Override
+    public void put(MQMessage message, MQPutMessageOptions options) throws MQException {
+      StoredMessage stored = new StoredMessage(message, this);
+      if ((options.options & CMQC.MQPMO_SYNCPOINT) != 0) {
+        connection.addUncommitted(() -> queue.add(stored));
+      } else {
+        queue.add(stored);
+      }
+    }
+
+    @Override
+    public void get(MQMessage message, MQGetMessageOptions options) throws MQException {
+      StoredMessage stored = queue.poll();
+      if (stored == null) {
+        throw failure(CMQC.MQRC_NO_MSG_AVAILABLE, this);
+      }
+      stored.copyTo(message, this);
+    }
+
+    @Override
+    public void close() {
+      // Nothing is held open
+    }
+  }
+
+  private static final class StoredMessage {
+
+    private final byte[] data;
+    private final byte[] correlationId;
+    private final String format;
+    private final Map<String, Object> properties;
+
+    StoredMessage(MQMessage message, Object source) throws MQException {
+      try {
+        message.seek(0);
+        data = new byte[message.getMessageLength()];
+        message.readFully(data);
+      } catch (IOException e) {
+        throw failure(CMQC.MQRC_UNEXPECTED_ERROR, source);
+      }
+      correlationId = message.correlationId.clone();
+      format = message.format;
+      properties = new LinkedHashMap<>();
+      Enumeration<String> names = message.getPropertyNames("%");
+      while (names.hasMoreElements()) {
+        String name = names.nextElement();
+        properties.put(name, message.getObjectProperty(name));
+      }
+    }
+
+    void copyTo(MQMessage message, Object source) throws MQException {
+      try {
+        message.write(data);
+        message.seek(0);
+      } catch (IOException e) {
+        throw failure(CMQC.MQRC_UNEXPECTED_ERROR, source);
+      }
+      message.correlationId = correlationId.clone();
+      message.format = format;
+      for (Map.Entry<String, Object> entry : properties.entrySet()) {
+        message.setObjectProperty(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+}
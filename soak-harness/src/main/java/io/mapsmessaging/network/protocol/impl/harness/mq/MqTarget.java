@@ -0,0 +1,72 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.harness.mq;
+
+import io.mapsmessaging.api.message.Message;
+import io.mapsmessaging.network.protocol.impl.harness.HarnessConfig;
+import io.mapsmessaging.network.protocol.impl.harness.HarnessEndPoints;
+import io.mapsmessaging.network.protocol.impl.harness.HarnessTarget;
+import io.mapsmessaging.network.protocol.impl.harness.LatencyRecorder;
+import io.mapsmessaging.network.protocol.impl.ibm_mq.MqProtocol;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Sends to, and polls from, the same queue of an in-memory queue manager
+ */
+public class MqTarget implements HarnessTarget {
+
+  private static final String QUEUE = "HARNESS.QUEUE";
+
+  private MqProtocol protocol;
+
+  @Override
+  public String getName() {
+    return "mq";
+  }
+
+  @Override
+  public void start(HarnessConfig config, LatencyRecorder recorder) throws IOException {
+    Map<String, Object> extensionConfig = config.newExtensionConfig();
+    extensionConfig.putIfAbsent("queueManager", "HARNESS");
+    protocol = new MqProtocol(HarnessEndPoints.create("mq://localhost:1414/"), HarnessEndPoints.config(extensionConfig), new InMemoryMqConnector()) {
+      @Override
+      public void inbound(String destinationName, Message message) {
+        recorder.received(message);
+      }
+    };
+    protocol.initialise();
+    protocol.registerLocalLink(QUEUE);
+    protocol.registerRemoteLink(QUEUE, null);
+  }
+
+  @Override
+  public void send(Message message) {
+    protocol.outbound(QUEUE, message);
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (protocol != null) {
+      protocol.close();
+    }
+  }
+}
@@ -0,0 +1,280 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.harness.pulsar;
+
+import org.apache.pulsar.client.api.*;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * An in-memory Pulsar client covering the producers and listener consumers the extension uses, the rest of the API
+ * is proxied as a no-op
+ */
+public class InMemoryPulsarClient {
+
+  private final Map<String, Topic> topics = new ConcurrentHashMap<>();
+  private final List<ExecutorService> listenerThreads = new CopyOnWriteArrayList<>();
+
+  public PulsarClient create() {
+    return proxy(PulsarClient.class, (proxy, method, args) -> {
+      switch (method.getName()) {
+        case "newProducer":
+          return newProducerBuilder();
+        case "newConsumer":
+          return newConsumerBuilder();
+        case "close":
+          shutdown();
+          return null;
+        case "closeAsync":
+          shutdown();
+          return CompletableFuture.completedFuture(null);
+        default:
+          return defaultValue(proxy, method, args);
+      }
+    });
+  }
+
+  private void shutdown() {
+    for (ExecutorService executor : listenerThreads) {
+      executor.shutdownNow();
+    }
+    listenerThreads.clear();
+  }
+
+  private Topic topic(String name) {
+    return topics.computeIfAbsent(name, Topic::new);
+  }
+
+  private ProducerBuilder<?> newProducerBuilder() {
+    String[] topicName = new String[1];
+    return proxy(ProducerBuilder.class, (proxy, method, args) -> {
+      switch (method.getName()) {
+        case "topic":
+          topicName[0] = (String) args[0];
+          return proxy;
+        case "create":
+          return newProducer(topic(topicName[0]));
+        case "createAsync":
+          return CompletableFuture.completedFuture(newProducer(topic(topicName[0])));
+        default:
+          return defaultValue(proxy, method, args);
+      }
+    });
+  }
+
+  private Producer<?> newProducer(Topic topic) {
+    return proxy(Producer.class, (proxy, method, args) -> {
+      switch (method.getName()) {
+        case "send":
+          topic.publish((byte[]) args[0], Collections.emptyMap());
+          return null;
+        case "sendAsync":
+          topic.publish((byte[]) args[0], Collections.emptyMap());
+          return CompletableFuture.completedFuture(null);
+        case "newMessage":
+          return newMessageBuilder(topic);
+        case "getTopic":
+          return topic.name;
+        default:
+          return defaultValue(proxy, method, args);
+      }
+    });
+  }
+
+  @SuppressWarnings("unchecked")
+  private TypedMessageBuilder<?> newMessageBuilder(Topic topic) {
+    Object[] state = {null, Collections.emptyMap()};
+    return proxy(TypedMessageBuilder.class, (proxy, method, args) -> {
+      switch (method.getName()) {
+        case "value":
+          state[0] = args[0];
+          return proxy;
+        case "properties":
+          state[1] = args[0];
+          return proxy;
+        case "send":
+          topic.publish((byte[]) state[0], (Map<String, String>) state[1]);
+          return null;
+        case "sendAsync":
+          topic.publish((byte[]) state[0], (Map<String, String>) state[1]);
+          return CompletableFuture.completedFuture(null);
+        default:
+          return defaultValue(proxy, method, args);
+      }
+    });
+  }
+
+  @SuppressWarnings("unchecked")
+  private ConsumerBuilder<?> newConsumerBuilder() {
+    Object[] state = new Object[2];
+    return proxy(ConsumerBuilder.class, (proxy, method, args) -> {
+      switch (method.getName()) {
+        case "topic":
+          state[0] = ((String[]) args[0])[0];
+          return proxy;
+        case "messageListener":
+          state[1] = args[0];
+          return proxy;
+        case "subscribe":
+          return subscribe(topic((String) state[0]), (MessageListener<byte[]>) state[1]);
+        case "subscribeAsync":
+          return CompletableFuture.completedFuture(subscribe(topic((String) state[0]), (MessageListener<byte[]>) state[1]));
+        default:
+          return defaultValue(proxy, method, args);
+      }
+    });
+  }
+
+  @SuppressWarnings("unchecked")
+  private Consumer<byte[]> subscribe(Topic topic, MessageListener<byte[]> listener) {
+    ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "pulsar-listener-" + topic.name);
+      thread.setDaemon(true);
+      return thread;
+    });
+    listenerThreads.add(executor);
+    Subscriber[] subscriber = new Subscriber[1];
+    Consumer<byte[]> consumer = proxy(Consumer.class, (proxy, method, args) -> {
+      switch (method.getName()) {
+        case "getTopic":
+          return topic.name;
+        case "close":
+          topic.subscribers.remove(subscriber[0]);
+          executor.shutdown();
+          return null;
+        case "closeAsync":
+          topic.subscribers.remove(subscriber[0]);
+          executor.shutdown();
+          return CompletableFuture.completedFuture(null);
+        default:
+          return defaultValue(proxy, method, args);
+      }
+    });
+    subscriber[0] = new Subscriber(consumer, listener, executor);
+    topic.subscribers.add(subscriber[0]);
+    return consumer;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Message<byte[]> newMessage(String topicName, byte[] data, Map<String, String> properties) {
+    long publishTime = System.currentTimeMillis();
+    return proxy(Message.class, (proxy, method, args) -> {
+      switch (method.getName()) {
+        case "getData":
+        case "getValue":
+          return data;
+        case "size":
+          return data.length;
+        case "getTopicName":
+          return topicName;
+        case "getProperties":
+          return properties;
+        case "getPublishTime":
+          return publishTime;
+        default:
+          return defaultValue(proxy, method, args);
+      }
+    });
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T proxy(Class<?> type, InvocationHandler handler) {
+    return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+  }
+
+  private static Object defaultValue(Object proxy, Method method, Object[] args) {
+    Class<?> returnType = method.getReturnType();
+    switch (method.getName()) {
+      case "hashCode":
+        return System.identityHashCode(proxy);
+      case "equals":
+        return args != null && args.length == 1 && args[0] == proxy;
+      case "toString":
+        return proxy.getClass().getInterfaces()[0].getSimpleName();
+      default:
+        break;
+    }
+    if (returnType.isInstance(proxy)) {
+      return proxy;
+    }
+    if (CompletableFuture.class.isAssignableFrom(returnType)) {
+      return CompletableFuture.completedFuture(null);
+    }
+    if (returnType == boolean.class) {
+      return false;
+    }
+    if (returnType == void.class || !returnType.isPrimitive()) {
+      return null;
+    }
+    if (returnType == long.class) {
+      return 0L;
+    }
+    if (returnType == int.class) {
+      return 0;
+    }
+    if (returnType == double.class) {
+      return 0d;
+    }
+    if (returnType == float.class) {
+      return 0f;
+    }
+    if (returnType == short.class) {
+      return (short) 0;
+    }
+    if (returnType == char.class) {
+      return (char) 0;
+    }
+    return (byte) 0;
+  }
+
+  private static final class Topic {
+    private final String name;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    Topic(String name) {
+      this.name = name;
+    }
+
+    void publish(byte[] data, Map<String, String> properties) {
+      for (Subscriber subscriber : subscribers) {
+        Message<byte[]> message = newMessage(name, data, properties);
+        subscriber.executor.execute(() -> subscriber.listener.received(subscriber.consumer, message));
+      }
+    }
+  }
+
+  private static final class Subscriber {
+    private final Consumer<byte[]> consumer;
+    private final MessageListener<byte[]> listener;
+    private final ExecutorService executor;
+
+    Subscriber(Consumer<byte[]> consumer, MessageListener<byte[]> listener, ExecutorService executor) {
+      this.consumer = consumer;
+      this.listener = listener;
+      this.executor = executor;
+    }
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.harness.pulsar;
+
+import io.mapsmessaging.api.message.Message;
+import io.mapsmessaging.network.protocol.impl.apache_pulsar.PulsarProtocol;
+import io.mapsmessaging.network.protocol.impl.harness.HarnessConfig;
+import io.mapsmessaging.network.protocol.impl.harness.HarnessEndPoints;
+import io.mapsmessaging.network.protocol.impl.harness.HarnessTarget;
+import io.mapsmessaging.network.protocol.impl.harness.LatencyRecorder;
+import org.apache.pulsar.client.api.PulsarClient;
+
+import java.io.IOException;
+
+/**
+ * Produces to, and consumes from, the same topic of an in-memory Pulsar client
+ */
+public class PulsarTarget implements HarnessTarget {
+
+  private static final String TOPIC = "persistent://public/default/harness";
+
+  private PulsarProtocol protocol;
+
+  @Override
+  public String getName() {
+    return "pulsar";
+  }
+
+  @Override
+  public void start(HarnessConfig config, LatencyRecorder recorder) throws IOException {
+    InMemoryPulsarClient pulsar = new InMemoryPulsarClient();
+    protocol = new PulsarProtocol(HarnessEndPoints.create("pulsar://localhost:6650/"), HarnessEndPoints.config(config.newExtensionConfig())) {
+      @Override
+      protected PulsarClient createClient(String serviceUrl) {
+        return pulsar.create();
+      }
+
+      @Override
+      public void inbound(String destinationName, Message message) {
+        recorder.received(message);
+      }
+    };
+    protocol.initialise();
+    protocol.registerRemoteLink(TOPIC, null);
+    protocol.registerLocalLink(TOPIC);
+  }
+
+  @Override
+  public void send(Message message) {
+    protocol.outbound(TOPIC, message);
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (protocol != null) {
+      protocol.close();
+    }
+  }
+}
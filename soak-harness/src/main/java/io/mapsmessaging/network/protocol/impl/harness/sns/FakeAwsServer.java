@@ -0,0 +1,410 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.harness.sns;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import software.amazon.awssdk.protocols.jsoncore.JsonNode;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A local HTTP stand-in for the SNS and SQS APIs used by the extension, so the SDK clients run against it unchanged.
+ * Filter policies are not applied and a message is removed from its queue once received.
+ */
+public class FakeAwsServer implements Closeable {
+
+  public static final String REGION = "us-east-1";
+  public static final String ACCOUNT = "000000000000";
+
+  private static final String SNS_NAMESPACE = "http://sns.amazonaws.com/doc/2010-03-31/";
+  private static final String ENTRY_PREFIX = "PublishBatchRequestEntries.member.";
+
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final Map<String, FakeQueue> queues;
+  private final Map<String, FakeSubscription> subscriptions;
+  private final AtomicLong ids;
+
+  public FakeAwsServer() throws IOException {
+    queues = new ConcurrentHashMap<>();
+    subscriptions = new ConcurrentHashMap<>();
+    ids = new AtomicLong();
+    executor = Executors.newCachedThreadPool(runnable -> {
+      Thread thread = new Thread(runnable, "fake-aws");
+      thread.setDaemon(true);
+      return thread;
+    });
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.setExecutor(executor);
+    server.createContext("/", this::handle);
+    server.start();
+  }
+
+  public String getEndpoint() {
+    return "http://127.0.0.1:" + server.getAddress().getPort();
+  }
+
+  public String topicArn(String name) {
+    return "arn:aws:sns:" + REGION + ":" + ACCOUNT + ":" + name;
+  }
+
+  /**
+   * @return the queue URL
+   */
+  public String createQueue(String name) {
+    queues.computeIfAbsent(name, FakeQueue::new);
+    return getEndpoint() + "/" + ACCOUNT + "/" + name;
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try (InputStream in = exchange.getRequestBody()) {
+      byte[] body = in.readAllBytes();
+      String target = exchange.getRequestHeaders().getFirst("X-Amz-Target");
+      if (target != null) {
+        handleSqs(exchange, target.substring(target.indexOf('.') + 1), JsonNode.parser().parse(new String(body, StandardCharsets.UTF_8)));
+      } else {
+        handleSns(exchange, parseForm(new String(body, StandardCharsets.UTF_8)));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      exchange.close();
+    } catch (RuntimeException e) {
+      respond(exchange, 500, "text/plain", String.valueOf(e));
+    }
+  }
+
+  // ---------------------------------------------------------------------------------------------------------------
+  // SNS, query protocol
+  // ---------------------------------------------------------------------------------------------------------------
+
+  private void handleSns(HttpExchange exchange, Map<String, String> params) throws IOException {
+    String action = params.getOrDefault("Action", "");
+    StringBuilder result = new StringBuilder();
+    switch (action) {
+      case "PublishBatch":
+        publishBatch(params, result);
+        break;
+
+      case "Subscribe":
+        subscribe(params, result);
+        break;
+
+      case "ListSubscriptionsByTopic":
+        listSubscriptions(params, result);
+        break;
+
+      case "SetSubscriptionAttributes":
+        break;
+
+      case "Unsubscribe":
+        subscriptions.remove(params.get("SubscriptionArn"));
+        break;
+
+      case "CreateTopic":
+        result.append("<TopicArn>").append(xml(topicArn(params.get("Name")))).append("</TopicArn>");
+        break;
+
+      default:
+        respond(exchange, 400, "text/xml",
+            "<ErrorResponse xmlns=\"" + SNS_NAMESPACE + "\"><Error><Type>Sender</Type><Code>InvalidAction</Code>" +
+                "<Message>" + xml(action) + " is not supported</Message></Error><RequestId>" + nextId() + "</RequestId></ErrorResponse>");
+        return;
+    }
+    respond(exchange, 200, "text/xml",
+        "<" + action + "Response xmlns=\"" + SNS_NAMESPACE + "\"><" + action + "Result>" + result + "</" + action + "Result>" +
+            "<ResponseMetadata><RequestId>" + nextId() + "</RequestId></ResponseMetadata></" + action + "Response>");
+  }
+
+  private void publishBatch(Map<String, String> params, StringBuilder result) {
+    String topicArn = params.get("TopicArn");
+    List<FakeQueue> subscribed = new ArrayList<>();
+    for (FakeSubscription subscription : subscriptions.values()) {
+      if (subscription.topicArn.equals(topicArn)) {
+        subscribed.add(subscription.queue);
+      }
+    }
+    result.append("<Successful>");
+    for (int index = 1; params.containsKey(ENTRY_PREFIX + index + ".Id"); index++) {
+      String prefix = ENTRY_PREFIX + index + ".";
+      String messageId = nextId();
+      String envelope = envelope(topicArn, messageId, params, prefix);
+      for (FakeQueue queue : subscribed) {
+        queue.add(envelope);
+      }
+      result.append("<member><Id>").append(xml(params.get(prefix + "Id"))).append("</Id><MessageId>")
+          .append(messageId).append("</MessageId></member>");
+    }
+    result.append("</Successful><Failed/>");
+  }
+
+  private void subscribe(Map<String, String> params, StringBuilder result) {
+    String topicArn = params.get("TopicArn");
+    String endpoint = params.get("Endpoint");
+    FakeQueue queue = queues.computeIfAbsent(endpoint.substring(endpoint.lastIndexOf(':') + 1), FakeQueue::new);
+    String subscriptionArn = topicArn + ":" + nextId();
+    subscriptions.put(subscriptionArn, new FakeSubscription(topicArn, endpoint, queue));
+    result.append("<SubscriptionArn>").append(xml(subscriptionArn)).append("</SubscriptionArn>");
+  }
+
+  private void listSubscriptions(Map<String, String> params, StringBuilder result) {
+    String topicArn = params.get("TopicArn");
+    result.append("<Subscriptions>");
+    for (Map.Entry<String, FakeSubscription> entry : subscriptions.entrySet()) {
+      FakeSubscription subscription = entry.getValue();
+      if (subscription.topicArn.equals(topicArn)) {
+        result.append("<member><TopicArn>").append(xml(topicArn)).append("</TopicArn><Protocol>sqs</Protocol><SubscriptionArn>")
+            .append(xml(entry.getKey())).append("</SubscriptionArn><Owner>").append(ACCOUNT).append("</Owner><Endpoint>")
+            .append(xml(subscription.endpoint)).append("</Endpoint></member>");
+      }
+    }
+    result.append("</Subscriptions>");
+  }
+
+  private String envelope(String topicArn, String messageId, Map<String, String> params, String prefix) {
+    StringBuilder json = new StringBuilder(256);
+    json.append("{\"Type\":\"Notification\",\"MessageId\":").append(json(messageId))
+        .append(",\"TopicArn\":").append(json(topicArn))
+        .append(",\"Message\":").append(json(params.getOrDefault(prefix + "Message", "")))
+        .append(",\"Timestamp\":").append(json(Instant.now().toString()))
+        .append(",\"MessageAttributes\":{");
+    String attributePrefix = prefix + "MessageAttributes.entry.";
+    for (int index = 1; params.containsKey(attributePrefix + index + ".Name"); index++) {
+      String entry = attributePrefix + index + ".";
+      String value = params.get(entry + "Value.StringValue");
+      if (value == null) {
+        value = params.getOrDefault(entry + "Value.BinaryValue", "");
+      }
+      if (index > 1) {
+        json.append(',');
+      }
+      json.append(json(params.get(entry + "Name"))).append(":{\"Type\":").append(json(params.get(entry + "Value.DataType")))
+          .append(",\"Value\":").append(json(value)).append('}');
+    }
+    return json.append("}}").toString();
+  }
+
+  // ---------------------------------------------------------------------------------------------------------------
+  // SQS, JSON protocol
+  // ---------------------------------------------------------------------------------------------------------------
+
+  private void handleSqs(HttpExchange exchange, String operation, JsonNode request) throws IOException, InterruptedException {
+    String response;
+    switch (operation) {
+      case "ReceiveMessage":
+        response = receiveMessage(request);
+        break;
+
+      case "DeleteMessageBatch":
+      case "ChangeMessageVisibilityBatch":
+        response = batchSucceeded(request);
+        break;
+
+      case "GetQueueUrl":
+        response = "{\"QueueUrl\":" + json(createQueue(text(request, "QueueName"))) + "}";
+        break;
+
+      case "GetQueueAttributes":
+        response = "{\"Attributes\":{\"QueueArn\":" + json("arn:aws:sqs:" + REGION + ":" + ACCOUNT + ":" + queueName(request)) + "}}";
+        break;
+
+      default:
+        respond(exchange, 400, "application/x-amz-json-1.0",
+            "{\"__type\":\"com.amazonaws.sqs#InvalidAction\",\"message\":" + json(operation + " is not supported") + "}");
+        return;
+    }
+    respond(exchange, 200, "application/x-amz-json-1.0", response);
+  }
+
+  private String receiveMessage(JsonNode request) throws InterruptedException {
+    FakeQueue queue = queues.computeIfAbsent(queueName(request), FakeQueue::new);
+    int max = Math.max(1, Integer.parseInt(number(request, "MaxNumberOfMessages", "1")));
+    long waitSeconds = Long.parseLong(number(request, "WaitTimeSeconds", "0"));
+    List<String> bodies = new ArrayList<>(max);
+    String first = queue.messages.poll(waitSeconds, TimeUnit.SECONDS);
+    if (first != null) {
+      bodies.add(first);
+      queue.messages.drainTo(bodies, max - 1);
+    }
+    StringBuilder json = new StringBuilder("{\"Messages\":[");
+    for (int x = 0; x < bodies.size(); x++) {
+      String body = bodies.get(x);
+      String messageId = nextId();
+      if (x > 0) {
+        json.append(',');
+      }
+      json.append("{\"MessageId\":").append(json(messageId))
+          .append(",\"ReceiptHandle\":").append(json(messageId))
+          .append(",\"MD5OfBody\":").append(json(md5(body)))
+          .append(",\"Attributes\":{\"ApproximateReceiveCount\":\"1\"}")
+          .append(",\"Body\":").append(json(body)).append('}');
+    }
+    return json.append("]}").toString();
+  }
+
+  private String batchSucceeded(JsonNode request) {
+    StringBuilder json = new StringBuilder("{\"Successful\":[");
+    List<JsonNode> entries = request.field("Entries").map(JsonNode::asArray).orElse(Collections.emptyList());
+    for (int x = 0; x < entries.size(); x++) {
+      if (x > 0) {
+        json.append(',');
+      }
+      json.append("{\"Id\":").append(json(text(entries.get(x), "Id"))).append('}');
+    }
+    return json.append("],\"Failed\":[]}").toString();
+  }
+
+  private static String queueName(JsonNode request) {
+    String url = text(request, "QueueUrl");
+    return url.substring(url.lastIndexOf('/') + 1);
+  }
+
+  // ---------------------------------------------------------------------------------------------------------------
+  // Helpers
+  // ---------------------------------------------------------------------------------------------------------------
+
+  private String nextId() {
+    return new UUID(0, ids.incrementAndGet()).toString();
+  }
+
+  private static String text(JsonNode node, String field) {
+    return node.field(field).map(JsonNode::asString).orElse("");
+  }
+
+  private static String number(JsonNode node, String field, String defaultValue) {
+    return node.field(field).map(JsonNode::asNumber).orElse(defaultValue);
+  }
+
+  private static Map<String, String> parseForm(String body) {
+    Map<String, String> params = new HashMap<>();
+    for (String pair : body.split("&")) {
+      int index = pair.indexOf('=');
+      if (index > 0) {
+        params.put(URLDecoder.decode(pair.substring(0, index), StandardCharsets.UTF_8), URLDecoder.decode(pair.substring(index + 1), StandardCharsets.UTF_8));
+      }
+    }
+    return params;
+  }
+
+  private static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", contentType);
+    exchange.getResponseHeaders().set("x-amzn-RequestId", UUID.randomUUID().toString());
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+
+  private static String md5(String value) {
+    try {
+      byte[] digest = MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+      StringBuilder hex = new StringBuilder(32);
+      for (byte b : digest) {
+        hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+      }
+      return hex.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String xml(String value) {
+    return value == null ? "" : value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+  }
+
+  private static String json(String value) {
+    if (value == null) {
+      return "null";
+    }
+    StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+    for (int x = 0; x < value.length(); x++) {
+      char ch = value.charAt(x);
+      switch (ch) {
+        case '"':
+          sb.append("\\\"");
+          break;
+        case '\\':
+          sb.append("\\\\");
+          break;
+        case '\n':
+          sb.append("\\n");
+          break;
+        case '\r':
+          sb.append("\\r");
+          break;
+        case '\t':
+          sb.append("\\t");
+          break;
+        default:
+          if (ch < 0x20) {
+            sb.append(String.format("\\u%04x", (int) ch));
+          } else {
+            sb.append(ch);
+          }
+      }
+    }
+    return sb.append('"').toString();
+  }
+
+  private static final class FakeSubscription {
+    private final String topicArn;
+    private final String endpoint;
+    private final FakeQueue queue;
+
+    FakeSubscription(String topicArn, String endpoint, FakeQueue queue) {
+      this.topicArn = topicArn;
+      this.endpoint = endpoint;
+      this.queue = queue;
+    }
+  }
+
+  private static final class FakeQueue {
+    private final String name;
+    private final LinkedBlockingQueue<String> messages = new LinkedBlockingQueue<>();
+
+    FakeQueue(String name) {
+      this.name = name;
+    }
+
+    void add(String body) {
+      messages.add(body);
+    }
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ *  Copyright [ 2020 - 2024 ] Matthew Buckton
+ *  Copyright [ 2024 - 2025 ] MapsMessaging B.V.
+ *
+ *  Licensed under the Apache License, Version 2.0 with the Commons Clause
+ *  (the "License"); you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at:
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *      https://commonsclause.com/
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.mapsmessaging.network.protocol.impl.harness.sns;
+
+import io.mapsmessaging.api.message.Message;
+import io.mapsmessaging.network.protocol.impl.aws_sns.SnsProtocol;
+import io.mapsmessaging.network.protocol.impl.harness.HarnessConfig;
+import io.mapsmessaging.network.protocol.impl.harness.HarnessEndPoints;
+import io.mapsmessaging.network.protocol.impl.harness.HarnessTarget;
+import io.mapsmessaging.network.protocol.impl.harness.LatencyRecorder;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Publishes to a topic on the fake SNS server and drains the SQS queue subscribed to it
+ */
+public class SnsTarget implements HarnessTarget {
+
+  private static final String NAME = "harness";
+
+  private FakeAwsServer server;
+  private SnsProtocol protocol;
+
+  @Override
+  public String getName() {
+    return "sns";
+  }
+
+  @Override
+  public void start(HarnessConfig config, LatencyRecorder recorder) throws IOException {
+    server = new FakeAwsServer();
+    String queueUrl = server.createQueue(NAME);
+    // The requests are still signed, so the default credential chain needs something to find
+    if (System.getProperty("aws.accessKeyId") == null) {
+      System.setProperty("aws.accessKeyId", "harness");
+      System.setProperty("aws.secretAccessKey", "harness");
+    }
+    Map<String, Object> extensionConfig = config.newExtensionConfig();
+    extensionConfig.putIfAbsent("region", FakeAwsServer.REGION);
+    extensionConfig.putIfAbsent("endpointOverride", server.getEndpoint());
+    extensionConfig.putIfAbsent("topicArn", server.topicArn(NAME));
+    protocol = new SnsProtocol(HarnessEndPoints.create("aws_sns://localhost/"), HarnessEndPoints.config(extensionConfig)) {
+      @Override
+      public void inbound(String destinationName, Message message) {
+        recorder.received(message);
+      }
+    };
+    protocol.initialise();
+    protocol.registerLocalLink(NAME);
+    protocol.registerRemoteLink(queueUrl, null);
+  }
+
+  @Override
+  public void send(Message message) {
+    protocol.outbound(NAME, message);
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (protocol != null) {
+      protocol.close();
+    }
+    if (server != null) {
+      server.close();
+    }
+  }
+}